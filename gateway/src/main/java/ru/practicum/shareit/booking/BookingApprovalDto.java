@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApprovalDto {
+    @NotEmpty(message = "Список ID бронирований не должен быть пустым.")
+    @Size(max = 100, message = "Нельзя обработать больше 100 бронирований за раз.")
+    private List<@NotNull(message = "ID бронирования не должен быть пустым.") Long> bookingIds;
+    @NotNull(message = "Решение по бронированиям должно быть указано.")
+    private Boolean approved;
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -25,22 +26,48 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getUserBookings(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserBookings(Long userId, State state, Integer from, Integer size,
+                                                  String fields) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&fields={fields}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getUserItemsBookings(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserItemsBookings(Long userId, State state, Integer from, Integer size,
+                                                       String fields) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}&fields={fields}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserBookingsAfter(Long userId, State state, String cursor, Integer size,
+                                                       String fields) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "fields", fields
+        );
+        return get("?state={state}&cursor={cursor}&size={size}&fields={fields}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserItemsBookingsAfter(Long userId, State state, String cursor, Integer size,
+                                                            String fields) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
+                "size", size,
+                "fields", fields
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}&fields={fields}", userId, parameters);
     }
 
 
@@ -48,6 +75,14 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingToGetDto);
     }
 
+    public ResponseEntity<Object> addAll(long userId, List<BookingToGetDto> bookingToGetDtos) {
+        return post("/batch", userId, bookingToGetDtos);
+    }
+
+    public ResponseEntity<Object> approveAll(long userId, BookingApprovalDto bookingApprovalDto) {
+        return patch("/approval", userId, bookingApprovalDto);
+    }
+
     public ResponseEntity<Object> update(Long userId, Long bookingId,
                                          BookingToGetDto bookingToGetDto, Boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId, bookingToGetDto);
@@ -10,7 +10,15 @@ import ru.practicum.shareit.exception.IllegalStateException;
 import ru.practicum.shareit.exception.InvalidBookingTimeException;
 import ru.practicum.shareit.exception.InvalidIdException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -18,7 +26,10 @@ import javax.validation.constraints.Min;
 @Slf4j
 @RequiredArgsConstructor
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final String FIELDS_PATTERN = "^$|^[a-zA-Z]+(,[a-zA-Z]+)*$";
     private final BookingClient bookingClient;
+    private final Validator validator;
 
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
@@ -30,16 +41,28 @@ public class BookingController {
     public ResponseEntity<Object> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                   @RequestParam(name = "state", defaultValue = "ALL") String state,
                                                   @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                                  @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
-        return bookingClient.getUserBookings(userId, checkState(state), from, size);
+                                                  @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                                  @RequestParam(name = "cursor", required = false) String cursor,
+                                                  @RequestParam(name = "fields", defaultValue = "")
+                                                  @Pattern(regexp = FIELDS_PATTERN) String fields) {
+        if (cursor != null) {
+            return bookingClient.getUserBookingsAfter(userId, checkState(state), cursor, size, fields);
+        }
+        return bookingClient.getUserBookings(userId, checkState(state), from, size, fields);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getUserItemsBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                        @RequestParam(name = "state", defaultValue = "ALL") String state,
                                                        @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                                       @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
-        return bookingClient.getUserItemsBookings(userId, checkState(state), from, size);
+                                                       @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                                       @RequestParam(name = "cursor", required = false) String cursor,
+                                                       @RequestParam(name = "fields", defaultValue = "")
+                                                       @Pattern(regexp = FIELDS_PATTERN) String fields) {
+        if (cursor != null) {
+            return bookingClient.getUserItemsBookingsAfter(userId, checkState(state), cursor, size, fields);
+        }
+        return bookingClient.getUserItemsBookings(userId, checkState(state), from, size, fields);
     }
 
     @PostMapping()
@@ -49,6 +72,29 @@ public class BookingController {
         return bookingClient.add(userId, bookingToGetDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                           List<BookingToGetDto> bookingToGetDtos) {
+        for (BookingToGetDto bookingToGetDto : bookingToGetDtos) {
+            Set<ConstraintViolation<BookingToGetDto>> violations = validator.validate(bookingToGetDto, Create.class);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            checkTimes(bookingToGetDto);
+        }
+        log.info("Add {} bookings, userId={}", bookingToGetDtos.size(), userId);
+        return bookingClient.addAll(userId, bookingToGetDtos);
+    }
+
+    @PatchMapping("/approval")
+    public ResponseEntity<Object> approveAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @RequestBody @Validated BookingApprovalDto bookingApprovalDto) {
+        log.info("Set approved={} for {} bookings, userId={}", bookingApprovalDto.getApproved(),
+                bookingApprovalDto.getBookingIds().size(), userId);
+        return bookingClient.approveAll(userId, bookingApprovalDto);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PathVariable Long bookingId,
@@ -2,9 +2,12 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -79,6 +82,27 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected void stream(String path, Long userId, @Nullable Map<String, Object> parameters, MediaType mediaType,
+                          HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setAccept(List.of(mediaType, MediaType.APPLICATION_JSON));
+                if (userId != null) {
+                    headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                }
+            }, shareitServerResponse -> {
+                response.setContentType(mediaType.toString());
+                return StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+            }, parameters != null ? parameters : Map.of());
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getRawStatusCode());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+        response.flushBuffer();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
@@ -3,12 +3,16 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -25,12 +29,13 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getUserItems(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserItems(Long userId, Integer from, Integer size, String fields) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "fields", fields
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}&fields={fields}", userId, parameters);
     }
 
     public ResponseEntity<Object> getItem(Long userId, Long itemId) {
@@ -50,7 +55,39 @@ public class ItemClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentToGetDto);
     }
 
-    public ResponseEntity<Object> search(String text, Integer from, Integer size) {
-        return get("/search?text=" + text + "&from=" + from + "&size=" + size);
+    public ResponseEntity<Object> getComments(Long userId, Long itemId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public void streamAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to,
+                                   MediaType mediaType, HttpServletResponse response) throws IOException {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        stream("/" + itemId + "/availability?from={from}&to={to}", userId, parameters, mediaType, response);
+    }
+
+    public ResponseEntity<Object> suggest(String prefix, Integer size) {
+        return get("/suggest?prefix=" + prefix + "&size=" + size);
+    }
+
+    public ResponseEntity<Object> search(String text, SearchMode mode, SearchOrder order, Integer from, Integer size,
+                                         String fields, LocalDateTime start, LocalDateTime end) {
+        return get("/search?text=" + text + "&mode=" + mode.name() + "&order=" + order.name()
+                + "&from=" + from + "&size=" + size + "&fields=" + fields
+                + (start == null ? "" : "&start=" + start + "&end=" + end));
     }
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -9,7 +11,12 @@ import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.exception.InvalidIdException;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ValidationException;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 @RestController
@@ -17,14 +24,19 @@ import java.util.ArrayList;
 @Validated
 @RequiredArgsConstructor
 public class ItemController {
+    private static final String FIELDS_PATTERN = "^$|^[a-zA-Z]+(,[a-zA-Z]+)*$";
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+    private static final String NDJSON = "application/x-ndjson";
     private final ItemClient itemClient;
 
 
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
-        return itemClient.getUserItems(userId, from, size);
+                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                         @RequestParam(name = "fields", defaultValue = "")
+                                         @Pattern(regexp = FIELDS_PATTERN) String fields) {
+        return itemClient.getUserItems(userId, from, size, fields);
     }
 
     @GetMapping("/{itemId}")
@@ -56,15 +68,88 @@ public class ItemController {
         return itemClient.addComment(userId, itemId, commentToGetDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @PathVariable Long itemId,
+                                              @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                              @RequestParam(name = "cursor", defaultValue = "") String cursor) {
+        return itemClient.getComments(userId, itemId, cursor, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания.");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new ValidationException("Период не может быть длиннее " + MAX_AVAILABILITY_DAYS + " дней.");
+        }
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
+    @GetMapping(value = "/{itemId}/availability", produces = NDJSON)
+    public void streamAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        itemClient.streamAvailability(userId, itemId, from, to, MediaType.parseMediaType(NDJSON), response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                          @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
+        if (!prefix.isBlank()) {
+            return itemClient.suggest(prefix, size);
+        } else {
+            return new ResponseEntity<>(new ArrayList<>(), null, HttpStatus.OK);
+        }
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> search(@RequestParam(name = "text", defaultValue = "") String text,
                                          @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
+                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                         @RequestParam(name = "mode", defaultValue = "FULLTEXT") String mode,
+                                         @RequestParam(name = "order", defaultValue = "ID") String order,
+                                         @RequestParam(name = "fields", defaultValue = "")
+                                         @Pattern(regexp = FIELDS_PATTERN) String fields,
+                                         @RequestParam(name = "start", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                         @RequestParam(name = "end", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Начало и окончание периода должны быть указаны вместе.");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания.");
+        }
         if (!text.isBlank()) {
-            return itemClient.search(text, from, size);
+            return itemClient.search(text, checkSearchMode(mode), checkSearchOrder(order), from, size, fields,
+                    start, end);
         } else {
             return new ResponseEntity<>(new ArrayList<>(), null, HttpStatus.OK);
         }
     }
 
+    private SearchMode checkSearchMode(String mode) {
+        try {
+            return SearchMode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неизвестный режим поиска: " + mode);
+        }
+    }
+
+    private SearchOrder checkSearchOrder(String order) {
+        try {
+            return SearchOrder.valueOf(order.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Неизвестный порядок сортировки: " + order);
+        }
+    }
 }
@@ -41,6 +41,22 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getUserRequestsAfter(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAllAfter(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/all?cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getItemRequest(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
@@ -23,14 +23,23 @@ public class ItemRequestController {
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<Object> getUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                                  @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return requestClient.getUserRequestsAfter(userId, cursor, size);
+        }
         return requestClient.getUserRequests(userId);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size) {
+                                         @RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                         @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return requestClient.getAllAfter(userId, cursor, size);
+        }
         return requestClient.getAll(userId, from, size);
     }
 
@@ -3,12 +3,17 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
@@ -27,6 +32,22 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    public ResponseEntity<Object> getAllAfter(String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", null, parameters);
+    }
+
+    public void streamAll(MediaType mediaType, HttpServletResponse response) throws IOException {
+        stream("", null, null, mediaType, response);
+    }
+
+    public UserIdSnapshotDto getIdSnapshot() {
+        return rest.getForObject("/ids", UserIdSnapshotDto.class);
+    }
+
     public ResponseEntity<Object> getUser(Long userId) {
         return get("/" + userId);
     }
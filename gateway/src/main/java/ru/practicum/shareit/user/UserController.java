@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -8,18 +9,32 @@ import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.exception.InvalidIdException;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Min;
+import java.io.IOException;
+
 @RestController
 @RequestMapping(path = "/users")
 @Validated
 @RequiredArgsConstructor
 public class UserController {
+    private static final String NDJSON = "application/x-ndjson";
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public ResponseEntity<Object> getAll(@RequestParam(name = "size", defaultValue = "10") @Min(1) Integer size,
+                                         @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return userClient.getAllAfter(cursor, size);
+        }
         return userClient.getAll();
     }
 
+    @GetMapping(produces = NDJSON)
+    public void streamAll(HttpServletResponse response) throws IOException {
+        userClient.streamAll(MediaType.parseMediaType(NDJSON), response);
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<Object> get(@PathVariable Long userId) {
         return userClient.getUser(userId);
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.UserNotFoundException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.BitSet;
+
+@Slf4j
+@Component
+public class UserIdFilter implements HandlerInterceptor {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private final UserClient userClient;
+    private final long refreshMillis;
+    private volatile Snapshot snapshot;
+    private long nextRefresh;
+
+    public UserIdFilter(UserClient userClient,
+                        @Value("${shareit-gateway.user-filter.refresh-millis:0}") long refreshMillis) {
+        this.userClient = userClient;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String header = request.getHeader(USER_ID_HEADER);
+        if (refreshMillis <= 0 || header == null) {
+            return true;
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(header);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        Snapshot current = getSnapshot();
+        if (current != null && current.isAbsent(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        return true;
+    }
+
+    private Snapshot getSnapshot() {
+        synchronized (this) {
+            if (System.currentTimeMillis() < nextRefresh) {
+                return snapshot;
+            }
+            nextRefresh = System.currentTimeMillis() + refreshMillis;
+        }
+        try {
+            UserIdSnapshotDto snapshotDto = userClient.getIdSnapshot();
+            snapshot = new Snapshot(snapshotDto.getStableId(), BitSet.valueOf(snapshotDto.getBitmap()));
+        } catch (RestClientException e) {
+            log.info("User id snapshot unavailable: {}", e.getMessage());
+        }
+        return snapshot;
+    }
+
+    static class Snapshot {
+        final long stableId;
+        final BitSet ids;
+
+        Snapshot(long stableId, BitSet ids) {
+            this.stableId = stableId;
+            this.ids = ids;
+        }
+
+        boolean isAbsent(long userId) {
+            return userId < 1 || userId <= stableId && userId <= Integer.MAX_VALUE && !ids.get((int) userId);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheGeneration {
+    private final AtomicLong value = new AtomicLong();
+
+    public long get() {
+        return value.get();
+    }
+
+    public void invalidate() {
+        invalidate(() -> { });
+    }
+
+    public void invalidate(Runnable eviction) {
+        advance(eviction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    advance(eviction);
+                }
+            });
+        }
+    }
+
+    private void advance(Runnable eviction) {
+        value.incrementAndGet();
+        eviction.run();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.EqualsAndHashCode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@EqualsAndHashCode
+public class Fields {
+    public static final Fields ALL = new Fields(null);
+
+    private final Set<String> names;
+
+    private Fields(Set<String> names) {
+        this.names = names;
+    }
+
+    public static Fields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        return new Fields(Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    public boolean contains(String... names) {
+        return this.names == null || Arrays.stream(names).anyMatch(this.names::contains);
+    }
+
+    public List<?> select(ObjectMapper objectMapper, List<?> dtos) {
+        if (names == null) {
+            return dtos;
+        }
+        return dtos.stream()
+                .map(dto -> objectMapper.<ObjectNode>valueToTree(dto).retain(names))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return names == null ? "*" : String.join(",", names);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+public class Ndjson {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private Ndjson() {
+    }
+
+    public static <T> void write(HttpServletRequest request, HttpServletResponse response, ObjectMapper objectMapper,
+                                 Consumer<Consumer<T>> source) throws IOException {
+        response.setContentType(MEDIA_TYPE);
+        OutputStream out = response.getOutputStream();
+        try {
+            source.accept(value -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(value));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                request.removeAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+            }
+            throw e;
+        }
+        out.flush();
+    }
+}
@@ -1,14 +1,22 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Create;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.InvalidBookingException;
 
 import java.util.List;
 
@@ -17,8 +25,11 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 public class BookingController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_BATCH_SIZE = 100;
     @Qualifier("bookingServiceImpl")
     final BookingService bookingService;
+    final ObjectMapper objectMapper;
 
     @GetMapping("/{bookingId}")
     public BookingToReturnDto get(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
@@ -26,19 +37,37 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingToReturnDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                    @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                    @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingService.getBookingsByState(State.valueOf(state), userId, from, size);
+    public ResponseEntity<List<?>> getUserBookings(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "fields", required = false) String fields) {
+        Fields selected = Fields.parse(fields);
+        if (cursor == null) {
+            return ResponseEntity.ok(selected.select(objectMapper,
+                    bookingService.getBookingsByState(State.valueOf(state), userId, from, size, selected)));
+        }
+        return withNextCursor(bookingService.getBookingsByStateAfter(State.valueOf(state), userId,
+                KeysetCursor.decode(cursor), size, selected), size, selected);
     }
 
     @GetMapping("/owner")
-    public List<BookingToReturnDto> getUserItemsBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                         @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingService.getUserItemsBookingsByState(State.valueOf(state), userId, from, size);
+    public ResponseEntity<List<?>> getUserItemsBookings(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "fields", required = false) String fields) {
+        Fields selected = Fields.parse(fields);
+        if (cursor == null) {
+            return ResponseEntity.ok(selected.select(objectMapper,
+                    bookingService.getUserItemsBookingsByState(State.valueOf(state), userId, from, size, selected)));
+        }
+        return withNextCursor(bookingService.getUserItemsBookingsByStateAfter(State.valueOf(state), userId,
+                KeysetCursor.decode(cursor), size, selected), size, selected);
     }
 
     @PostMapping()
@@ -47,6 +76,23 @@ public class BookingController {
         return bookingService.add(bookingToGetDto, userId, bookingToGetDto.getItemId());
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody List<BookingToGetDto> bookingToGetDtos) {
+        if (bookingToGetDtos.isEmpty() || bookingToGetDtos.size() > MAX_BATCH_SIZE) {
+            throw new InvalidBookingException("Количество бронирований в пакете должно быть от 1 до "
+                    + MAX_BATCH_SIZE + ".");
+        }
+        return bookingService.addAll(bookingToGetDtos, userId);
+    }
+
+    @PatchMapping("/approval")
+    public List<BookingApprovalResultDto> approveAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                     @RequestBody BookingApprovalDto bookingApprovalDto) {
+        return bookingService.approveAll(bookingApprovalDto.getBookingIds(), userId,
+                bookingApprovalDto.getApproved());
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingToReturnDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
                                      @PathVariable Long bookingId,
@@ -55,5 +101,12 @@ public class BookingController {
         return bookingService.update(bookingToGetDto, userId, bookingId, approved);
     }
 
-
+    private ResponseEntity<List<?>> withNextCursor(List<BookingToReturnDto> bookings, Integer size, Fields fields) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            BookingToReturnDto last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(fields.select(objectMapper, bookings));
+    }
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingForItemProjection {
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    Long getBookerId();
+
+    Long getItemId();
+}
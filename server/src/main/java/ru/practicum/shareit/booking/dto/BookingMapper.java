@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.dto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
@@ -24,6 +25,14 @@ public class BookingMapper {
         );
     }
 
+    public BookingForItemDto toForItemDto(BookingForItemProjection booking) {
+        return new BookingForItemDto(booking.getId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                booking.getBookerId()
+        );
+    }
+
     public List<BookingForItemDto> toForItemDtoList(List<Booking> bookingList) {
         List<BookingForItemDto> listToReturn = new ArrayList<>();
         bookingList.forEach(booking -> listToReturn.add(toForItemDto(booking)));
@@ -41,9 +50,22 @@ public class BookingMapper {
     public BookingToReturnDto toReturnDto(Booking booking,
                                           List<Booking> itemBookings,
                                           List<Comment> itemComments) {
-        ItemToReturnDto itemToReturnDto = itemMapper.toReturnDto(booking.getItem(),
-                                                                       toForItemDtoList(itemBookings),
-                                                                       itemComments);
+        return toReturnDto(booking, itemMapper.toReturnDto(booking.getItem(),
+                                                           toForItemDtoList(itemBookings),
+                                                           itemComments));
+    }
+
+    public BookingToReturnDto toReturnDto(Booking booking,
+                                          List<Booking> itemBookings,
+                                          List<CommentToReturnDto> itemComments,
+                                          Long itemCommentCount) {
+        return toReturnDto(booking, itemMapper.toReturnDto(booking.getItem(),
+                                                           toForItemDtoList(itemBookings),
+                                                           itemComments,
+                                                           itemCommentCount));
+    }
+
+    private BookingToReturnDto toReturnDto(Booking booking, ItemToReturnDto itemToReturnDto) {
         itemToReturnDto.setId(booking.getItem().getId());
         itemToReturnDto.setName(booking.getItem().getName());
         itemToReturnDto.setDescription(booking.getItem().getDescription());
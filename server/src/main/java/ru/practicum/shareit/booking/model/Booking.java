@@ -15,6 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.withItemAndBooker",
+        attributeNodes = {@NamedAttributeNode("item"), @NamedAttributeNode("booker")})
 public class Booking implements Comparable<Booking> {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,14 +27,16 @@ public class Booking implements Comparable<Booking> {
     @Column (name = "end_date")
     @Timestamp
     LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     User booker;
     @Enumerated(EnumType.STRING)
     Status status;
+    @Version
+    Long version;
 
     @Override
     public int compareTo(Booking o) {
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingBatchRepository {
+
+    List<Long> insertAll(List<Booking> bookings);
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private static final String INSERT_BOOKING = "insert into bookings " +
+            "(start_date, end_date, status, item_id, booker_id) values (?, ?, ?, ?, ?)";
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_BOOKING, new String[]{"id"})) {
+                for (Booking booking : bookings) {
+                    statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                    statement.setString(3, booking.getStatus().name());
+                    statement.setLong(4, booking.getItem().getId());
+                    statement.setLong(5, booking.getBooker().getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+}
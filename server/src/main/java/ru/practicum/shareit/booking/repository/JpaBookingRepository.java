@@ -1,68 +1,175 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingForItemProjection;
+import ru.practicum.shareit.booking.dto.BookingIntervalProjection;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
+public interface JpaBookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository {
 
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.item.id = :itemId")
     List<Booking> findAllByItemId(Long itemId);
 
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.item.id in :itemIds")
+    List<Booking> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query(value = "select id, start_date as startDate, end_date as endDate, " +
+            "booker_id as bookerId, item_id as itemId " +
+            "from (select b.*, row_number() over (partition by b.item_id order by b.start_date desc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (:itemIds) " +
+            "and b.status not in ('REJECTED', 'CANCELED') " +
+            "and b.start_date < :now) as last_bookings " +
+            "where rn = 1 " +
+            "union all " +
+            "select id, start_date as startDate, end_date as endDate, " +
+            "booker_id as bookerId, item_id as itemId " +
+            "from (select b.*, row_number() over (partition by b.item_id order by b.start_date) as rn " +
+            "from bookings b " +
+            "where b.item_id in (:itemIds) " +
+            "and b.status not in ('REJECTED', 'CANCELED') " +
+            "and b.start_date > :now) as next_bookings " +
+            "where rn = 1",
+            nativeQuery = true)
+    List<BookingForItemProjection> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.item.id = :itemId " +
             "and b.end < current_timestamp " +
             "and b.status = 'APPROVED'")
     List<Booking> findAllSuccessfulBookings(Long userId, Long itemId);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b where b.item.id = :itemId " +
+            "and b.status = 'APPROVED' " +
+            "and b.end > current_timestamp")
+    List<Booking> findAllItemApprovedBookings(Long itemId);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("select b.start as startDate, b.end as endDate from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.status in ('APPROVED', 'WAITING') " +
+            "and b.start < :to " +
+            "and b.end > :from " +
+            "order by b.start")
+    Stream<BookingIntervalProjection> streamActiveIntervals(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select b.item.id as itemId, count(b) as count from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = 'APPROVED' " +
+            "and b.start > :since " +
+            "and b.start <= current_timestamp " +
+            "group by b.item.id")
+    List<ItemCountProjection> countAllApprovedByItemIdInAndStartAfter(Collection<Long> itemIds, LocalDateTime since);
+
+    @Query("select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = :itemId " +
+            "and b.id <> :bookingId " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start")
+    boolean existsApprovedOverlap(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId " +
+            "and b.status <> :status " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatus(Long bookingId, Long ownerId, Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b " +
+            "where b.id in :bookingIds " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId) " +
+            "order by b.id")
+    List<Booking> lockAllOwnerBookings(Collection<Long> bookingIds, Long ownerId);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start")
+    List<Booking> findAllApprovedOverlaps(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :bookingIds " +
+            "and b.status <> :status " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateAllStatuses(Collection<Long> bookingIds, Long ownerId, Status status);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "and b.start < current_timestamp " +
             "and b.end > current_timestamp " +
             "order by b.id")
     List<Booking> findAllUserItemsCurrentBookings(Long userId, Pageable page);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "order by b.start desc")
     List<Booking> findAllUserItemsBookings(Long userId, Pageable page);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "and b.end < current_timestamp " +
             "and b.status <> 'REJECTED' " +
             "and b.status <>'CANCELED' " +
             "order by b.start desc")
     List<Booking> findAllUserItemsPastBookings(Long userId, Pageable page);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "and b.start > current_timestamp   " +
             "and b.status <> 'REJECTED' " +
             "and b.status <>'CANCELED' " +
             "order by b.start desc")
     List<Booking> findAllUserItemsFutureBookings(Long userId, Pageable page);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "and b.status = 'WAITING'" +
             "order by b.start desc")
     List<Booking> findAllUserItemsWaitingBookings(Long userId, Pageable page);
 
-    @Query("select b from Booking b where b.item.owner.id = :userId " +
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
             "and b.status = 'REJECTED'" +
             "order by b.start desc")
     List<Booking> findAllUserItemsRejectedBookings(Long userId, Pageable page);
 
 //------------------------------------------------------------------------
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.start < current_timestamp " +
             "and b.end > current_timestamp " +
             "order by b.id")
     List<Booking> findAllUserCurrentBookings(Long userId, Pageable page);
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "order by b.start desc")
     List<Booking> findAllUserBookings(Long userId, Pageable page);
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.end < current_timestamp " +
             "and b.status <> 'REJECTED' " +
@@ -70,6 +177,7 @@ public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
             "order by b.start desc")
     List<Booking> findAllUserPastBookings(Long userId, Pageable page);
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.start > current_timestamp   " +
             "and b.status <> 'REJECTED' " +
@@ -77,13 +185,111 @@ public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
             "order by b.start desc")
     List<Booking> findAllUserFutureBookings(Long userId, Pageable page);
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.status = 'WAITING'" +
             "order by b.start desc")
     List<Booking> findAllUserWaitingBookings(Long userId, Pageable page);
 
+    @EntityGraph("Booking.withItemAndBooker")
     @Query("select b from Booking b where b.booker.id = :userId " +
             "and b.status = 'REJECTED'" +
             "order by b.start desc")
     List<Booking> findAllUserRejectedBookings(Long userId, Pageable page);
+
+//------------------------------------------------------------------------
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and b.start < current_timestamp " +
+            "and b.end > current_timestamp " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsCurrentBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and b.end < current_timestamp " +
+            "and b.status <> 'REJECTED' " +
+            "and b.status <>'CANCELED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsPastBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and b.start > current_timestamp " +
+            "and b.status <> 'REJECTED' " +
+            "and b.status <>'CANCELED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsFutureBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and b.status = 'WAITING' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsWaitingBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @Query("select b from Booking b join fetch b.item i join fetch b.booker " +
+            "where i.owner.id = :userId " +
+            "and b.status = 'REJECTED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserItemsRejectedBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+//------------------------------------------------------------------------
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and b.start < current_timestamp " +
+            "and b.end > current_timestamp " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserCurrentBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and b.end < current_timestamp " +
+            "and b.status <> 'REJECTED' " +
+            "and b.status <> 'CANCELED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserPastBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and b.start > current_timestamp " +
+            "and b.status <> 'REJECTED' " +
+            "and b.status <> 'CANCELED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserFutureBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and b.status = 'WAITING' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserWaitingBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
+
+    @EntityGraph("Booking.withItemAndBooker")
+    @Query("select b from Booking b where b.booker.id = :userId " +
+            "and b.status = 'REJECTED' " +
+            "and (b.start < :start or (b.start = :start and b.id < :id)) " +
+            "order by b.start desc, b.id desc")
+    List<Booking> findAllUserRejectedBookingsAfter(Long userId, LocalDateTime start, Long id, Pageable page);
 }
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.JpaBookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    final JpaBookingRepository bookingRepository;
+    final BookingMapper bookingMapper;
+    final Map<Long, NavigableMap<LocalDateTime, BookingForItemDto>> intervalsByItem = new ConcurrentHashMap<>();
+
+    public boolean hasConflict(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, BookingForItemDto> intervals = getItemIntervals(itemId);
+        synchronized (intervals) {
+            Map.Entry<LocalDateTime, BookingForItemDto> entry = intervals.lowerEntry(end);
+            if (entry != null && entry.getValue().getId().equals(bookingId)) {
+                entry = intervals.lowerEntry(entry.getKey());
+            }
+            return entry != null && entry.getValue().getEnd().isAfter(start);
+        }
+    }
+
+    public void add(Booking booking) {
+        NavigableMap<LocalDateTime, BookingForItemDto> intervals = intervalsByItem.get(booking.getItem().getId());
+        if (intervals != null) {
+            synchronized (intervals) {
+                intervals.put(booking.getStart(), bookingMapper.toForItemDto(booking));
+            }
+        }
+    }
+
+    public void remove(Long itemId, Long bookingId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, BookingForItemDto> intervals = intervalsByItem.get(itemId);
+        if (intervals != null) {
+            synchronized (intervals) {
+                BookingForItemDto interval = intervals.get(start);
+                if (interval != null && interval.getId().equals(bookingId)) {
+                    intervals.remove(start);
+                }
+            }
+        }
+    }
+
+    public void evict(Long itemId) {
+        intervalsByItem.remove(itemId);
+    }
+
+    private NavigableMap<LocalDateTime, BookingForItemDto> getItemIntervals(Long itemId) {
+        NavigableMap<LocalDateTime, BookingForItemDto> intervals = intervalsByItem.get(itemId);
+        if (intervals != null) {
+            return intervals;
+        }
+        NavigableMap<LocalDateTime, BookingForItemDto> loaded = new TreeMap<>();
+        bookingRepository.findAllItemApprovedBookings(itemId)
+                .forEach(booking -> loaded.put(booking.getStart(), bookingMapper.toForItemDto(booking)));
+        intervals = intervalsByItem.putIfAbsent(itemId, loaded);
+        return intervals == null ? loaded : intervals;
+    }
+}
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
 import ru.practicum.shareit.booking.model.State;
@@ -12,9 +16,30 @@ public interface BookingService {
 
     List<BookingToReturnDto> getBookingsByState(State state, Long userId, Integer from, Integer size);
 
+    List<BookingToReturnDto> getBookingsByState(State state, Long userId, Integer from, Integer size,
+                                                Fields fields);
+
     List<BookingToReturnDto> getUserItemsBookingsByState(State state, Long userId, Integer from, Integer size);
 
+    List<BookingToReturnDto> getUserItemsBookingsByState(State state, Long userId, Integer from, Integer size,
+                                                         Fields fields);
+
+    List<BookingToReturnDto> getBookingsByStateAfter(State state, Long userId, KeysetCursor cursor, Integer size);
+
+    List<BookingToReturnDto> getBookingsByStateAfter(State state, Long userId, KeysetCursor cursor, Integer size,
+                                                     Fields fields);
+
+    List<BookingToReturnDto> getUserItemsBookingsByStateAfter(State state, Long userId,
+                                                              KeysetCursor cursor, Integer size);
+
+    List<BookingToReturnDto> getUserItemsBookingsByStateAfter(State state, Long userId,
+                                                              KeysetCursor cursor, Integer size, Fields fields);
+
     BookingToReturnDto add(BookingToGetDto bookingGetDto, Long userId, Long itemId);
 
+    List<BookingBatchResultDto> addAll(List<BookingToGetDto> bookingGetDtos, Long userId);
+
+    List<BookingApprovalResultDto> approveAll(List<Long> bookingIds, Long userId, Boolean approved);
+
     BookingToReturnDto update(BookingToGetDto bookingGetDto, Long userId, Long bookingId, Boolean approved);
 }
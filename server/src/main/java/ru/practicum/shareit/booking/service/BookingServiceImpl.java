@@ -4,6 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
@@ -11,42 +16,68 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
+import ru.practicum.shareit.comment.dto.CommentForItemProjection;
+import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.lookup.EntityLookupService;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Long NEW_BOOKING_ID = 0L;
     final JpaItemRepository itemRepository;
-    final JpaUserRepository userRepository;
     final JpaBookingRepository bookingRepository;
     final JpaCommentRepository commentRepository;
     final BookingMapper bookingMapper;
+    final CommentMapper commentMapper;
+    final BookingIntervalIndex intervalIndex;
+    final ItemSearchCache searchCache;
+    final ItemCardCache cardCache;
+    final EntityLookupService entityLookup;
 
 
     @Override
     public BookingToReturnDto getById(Long bookingId, Long userId) {
-        checkUserExistence(userId);
+        entityLookup.getUser(userId);
         Booking booking = checkBookingExistence(bookingId);
         checkUserPermissions(userId, booking);
         List<Booking> itemBookings = bookingRepository.findAllByItemId(booking.getItem().getId());
-        List<Comment> itemComments = commentRepository.findAllByItemId(booking.getItem().getId());
 
-        return bookingMapper.toReturnDto(booking,itemBookings,itemComments);
+        return toBookingToReturnDto(booking, itemBookings);
     }
 
     @Override
     public List<BookingToReturnDto> getBookingsByState(State state, Long userId, Integer from, Integer size) {
-        checkUserExistence(userId);
+        return getBookingsByState(state, userId, from, size, Fields.ALL);
+    }
+
+    @Override
+    public List<BookingToReturnDto> getBookingsByState(State state, Long userId, Integer from, Integer size,
+                                                       Fields fields) {
+        entityLookup.getUser(userId);
         List<Booking> bookings;
         Pageable page = PageRequest.of(from / size, size);
         switch (state) {
@@ -68,12 +99,18 @@ public class BookingServiceImpl implements BookingService {
             default:
                 bookings = bookingRepository.findAllUserBookings(userId, page);
         }
-        return toBookingToReturnDtoList(bookings);
+        return toBookingToReturnDtoList(bookings, fields);
     }
 
     @Override
     public List<BookingToReturnDto> getUserItemsBookingsByState(State state, Long userId, Integer from, Integer size) {
-        checkUserExistence(userId);
+        return getUserItemsBookingsByState(state, userId, from, size, Fields.ALL);
+    }
+
+    @Override
+    public List<BookingToReturnDto> getUserItemsBookingsByState(State state, Long userId, Integer from, Integer size,
+                                                                Fields fields) {
+        entityLookup.getUser(userId);
         List<Booking> bookings;
         Pageable page = PageRequest.of(from / size, size);
         switch (state) {
@@ -95,60 +132,320 @@ public class BookingServiceImpl implements BookingService {
             default:
                 bookings = bookingRepository.findAllUserItemsBookings(userId, page);
         }
-        return toBookingToReturnDtoList(bookings);
+        return toBookingToReturnDtoList(bookings, fields);
+    }
+
+    @Override
+    public List<BookingToReturnDto> getBookingsByStateAfter(State state, Long userId,
+                                                            KeysetCursor cursor, Integer size) {
+        return getBookingsByStateAfter(state, userId, cursor, size, Fields.ALL);
+    }
+
+    @Override
+    public List<BookingToReturnDto> getBookingsByStateAfter(State state, Long userId,
+                                                            KeysetCursor cursor, Integer size, Fields fields) {
+        entityLookup.getUser(userId);
+        List<Booking> bookings;
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime start = cursor.getTimestamp();
+        Long id = cursor.getId();
+        switch (state) {
+            case CURRENT:
+                bookings = bookingRepository.findAllUserCurrentBookingsAfter(userId, start, id, page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findAllUserPastBookingsAfter(userId, start, id, page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findAllUserFutureBookingsAfter(userId, start, id, page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllUserWaitingBookingsAfter(userId, start, id, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllUserRejectedBookingsAfter(userId, start, id, page);
+                break;
+            default:
+                bookings = bookingRepository.findAllUserBookingsAfter(userId, start, id, page);
+        }
+        return toBookingToReturnDtoList(bookings, fields);
     }
 
     @Override
+    public List<BookingToReturnDto> getUserItemsBookingsByStateAfter(State state, Long userId,
+                                                                     KeysetCursor cursor, Integer size) {
+        return getUserItemsBookingsByStateAfter(state, userId, cursor, size, Fields.ALL);
+    }
+
+    @Override
+    public List<BookingToReturnDto> getUserItemsBookingsByStateAfter(State state, Long userId,
+                                                                     KeysetCursor cursor, Integer size,
+                                                                     Fields fields) {
+        entityLookup.getUser(userId);
+        List<Booking> bookings;
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime start = cursor.getTimestamp();
+        Long id = cursor.getId();
+        switch (state) {
+            case CURRENT:
+                bookings = bookingRepository.findAllUserItemsCurrentBookingsAfter(userId, start, id, page);
+                break;
+            case PAST:
+                bookings = bookingRepository.findAllUserItemsPastBookingsAfter(userId, start, id, page);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findAllUserItemsFutureBookingsAfter(userId, start, id, page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllUserItemsWaitingBookingsAfter(userId, start, id, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllUserItemsRejectedBookingsAfter(userId, start, id, page);
+                break;
+            default:
+                bookings = bookingRepository.findAllUserItemsBookingsAfter(userId, start, id, page);
+        }
+        return toBookingToReturnDtoList(bookings, fields);
+    }
+
+    @Override
+    @Transactional
     public BookingToReturnDto add(BookingToGetDto bookingGetDto, Long userId, Long itemId) {
-        User user = checkUserExistence(userId);
+        checkTimes(bookingGetDto);
+        User user = entityLookup.getUser(userId);
         Item item = checkAvailability(userId, itemId);
         Booking booking = bookingMapper.toEntity(bookingGetDto);
+        checkOverlap(itemId, NEW_BOOKING_ID, booking.getStart(), booking.getEnd());
         booking.setStatus(Status.WAITING);
         booking.setBooker(user);
         booking.setItem(item);
-        return bookingMapper.toReturnDto(bookingRepository.save(booking), new ArrayList<>(), new ArrayList<>());
+        Booking savedBooking = bookingRepository.save(booking);
+        invalidateItems(Set.of(itemId));
+        return bookingMapper.toReturnDto(savedBooking, new ArrayList<>(), new ArrayList<>());
     }
 
     @Override
-    public BookingToReturnDto update(BookingToGetDto newBooking, Long userId, Long bookingId, Boolean approved) {
-        checkUserExistence(userId);
-        Booking oldBooking = checkBookingExistence(bookingId);
-        if (newBooking != null) {
-            checkBookerPermissions(userId, oldBooking);
-            if (newBooking.getItemId() != null && !newBooking.getItemId().equals(oldBooking.getItem().getId())) {
-                Item item = checkAvailability(userId, newBooking.getItemId());
-                oldBooking.setItem(item);
-                checkBookerPermissions(userId, oldBooking);
+    @Transactional
+    public List<BookingBatchResultDto> addAll(List<BookingToGetDto> bookingGetDtos, Long userId) {
+        User user = entityLookup.getUser(userId);
+        Set<Long> itemsId = bookingGetDtos.stream()
+                .map(BookingToGetDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        entityLookup.queueItems(itemsId);
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        List<BookingBatchResultDto> created = new ArrayList<>();
+        for (int i = 0; i < bookingGetDtos.size(); i++) {
+            BookingToGetDto bookingGetDto = bookingGetDtos.get(i);
+            BookingBatchResultDto result = new BookingBatchResultDto(i, null, null);
+            try {
+                checkBooking(bookingGetDto);
+                Item item = checkAvailability(userId, bookingGetDto.getItemId());
+                checkOverlap(item.getId(), NEW_BOOKING_ID, bookingGetDto.getStart(), bookingGetDto.getEnd());
+                Booking booking = bookingMapper.toEntity(bookingGetDto);
+                booking.setStatus(Status.WAITING);
+                booking.setBooker(user);
+                booking.setItem(item);
+                bookings.add(booking);
+                created.add(result);
+            } catch (InvalidBookingException | ItemNotFoundException | NoPermissionException
+                     | UnavailableException | BookingConflictException e) {
+                result.setError(e.getMessage());
             }
-            if (newBooking.getStart() != null) {
-                oldBooking.setStart(newBooking.getStart());
-            }
-            if (newBooking.getEnd() != null) {
-                oldBooking.setEnd(newBooking.getEnd());
+            results.add(result);
+        }
+        List<Long> ids = bookingRepository.insertAll(bookings);
+        if (!ids.isEmpty()) {
+            invalidateItems(bookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            created.get(i).setId(ids.get(i));
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingApprovalResultDto> approveAll(List<Long> bookingIds, Long userId, Boolean approved) {
+        entityLookup.getUser(userId);
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        Map<Long, Booking> bookings = bookingRepository.lockAllOwnerBookings(bookingIds, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, String> errors = new HashMap<>();
+        List<Booking> changed = new ArrayList<>();
+        for (Booking booking : bookings.values()) {
+            if (status.equals(booking.getStatus())) {
+                errors.put(booking.getId(), "Нельзя поменять статус на такой же.");
+            } else {
+                changed.add(booking);
             }
-        } else {
-            if (approved != null) {
-                checkOwnerPermissions(userId, oldBooking);
-                if (approved) {
-                    if (!oldBooking.getStatus().equals(Status.APPROVED)) {
-                        oldBooking.setStatus(Status.APPROVED);
-                    } else {
-                        throw new IllegalStatusException("Нельзя поменять статус на такой же.");
-                    }
-                } else {
-                    if (!oldBooking.getStatus().equals(Status.REJECTED)) {
-                        oldBooking.setStatus(Status.REJECTED);
-                    } else {
-                        throw new IllegalStatusException("Нельзя поменять статус на такой же.");
-                    }
+        }
+        if (status.equals(Status.APPROVED)) {
+            changed = excludeApprovedOverlaps(changed, errors);
+        }
+        if (!changed.isEmpty()) {
+            for (Booking booking : changed) {
+                if (status.equals(Status.APPROVED)) {
+                    intervalIndex.add(booking);
+                } else if (Status.APPROVED.equals(booking.getStatus())) {
+                    intervalIndex.remove(booking.getItem().getId(), booking.getId(), booking.getStart());
                 }
+            }
+            bookingRepository.updateAllStatuses(changed.stream().map(Booking::getId).collect(Collectors.toList()),
+                    userId, status);
+            invalidateItems(changed.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
+        }
+        List<BookingApprovalResultDto> results = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            if (!bookings.containsKey(bookingId)) {
+                results.add(new BookingApprovalResultDto(bookingId, null,
+                        new BookingNotFoundException(bookingId).getMessage()));
+            } else if (errors.containsKey(bookingId)) {
+                results.add(new BookingApprovalResultDto(bookingId, null, errors.get(bookingId)));
             } else {
-                throw new UnavailableException();
+                results.add(new BookingApprovalResultDto(bookingId, status, null));
             }
         }
-        List<Comment> comments = commentRepository.findAllByItemId(oldBooking.getItem().getId());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public BookingToReturnDto update(BookingToGetDto newBooking, Long userId, Long bookingId, Boolean approved) {
+        entityLookup.getUser(userId);
+        if (newBooking == null && approved != null) {
+            return approve(userId, bookingId, approved);
+        }
+        Booking oldBooking = checkBookingExistence(bookingId);
+        if (newBooking == null) {
+            throw new UnavailableException();
+        }
+        checkBookerPermissions(userId, oldBooking);
+        Long oldItemId = oldBooking.getItem().getId();
+        LocalDateTime oldStart = oldBooking.getStart();
+        if (newBooking.getItemId() != null && !newBooking.getItemId().equals(oldItemId)) {
+            Item item = checkAvailability(userId, newBooking.getItemId());
+            oldBooking.setItem(item);
+            checkBookerPermissions(userId, oldBooking);
+        }
+        if (newBooking.getStart() != null) {
+            oldBooking.setStart(newBooking.getStart());
+        }
+        if (newBooking.getEnd() != null) {
+            oldBooking.setEnd(newBooking.getEnd());
+        }
+        boolean approvedBooking = Status.APPROVED.equals(oldBooking.getStatus());
+        if (approvedBooking) {
+            checkApprovedOverlap(oldBooking);
+        } else {
+            checkOverlap(oldBooking.getItem().getId(), bookingId, oldBooking.getStart(), oldBooking.getEnd());
+        }
         List<Booking> bookings = bookingRepository.findAllByItemId(oldBooking.getItem().getId());
-        return bookingMapper.toReturnDto(bookingRepository.save(oldBooking), bookings, comments);
+        Booking savedBooking = bookingRepository.save(oldBooking);
+        invalidateItems(Stream.of(oldItemId, oldBooking.getItem().getId()).collect(Collectors.toSet()));
+        if (approvedBooking) {
+            intervalIndex.remove(oldItemId, bookingId, oldStart);
+            intervalIndex.add(oldBooking);
+        }
+        return toBookingToReturnDto(savedBooking, bookings);
+    }
+
+    private BookingToReturnDto approve(Long userId, Long bookingId, Boolean approved) {
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, userId, status) == 0) {
+            checkOwnerPermissions(userId, checkBookingExistence(bookingId));
+            throw new IllegalStatusException("Нельзя поменять статус на такой же.");
+        }
+        Booking booking = checkBookingExistence(bookingId);
+        Long itemId = booking.getItem().getId();
+        if (status.equals(Status.APPROVED)) {
+            checkApprovedOverlap(booking);
+            intervalIndex.add(booking);
+        } else {
+            intervalIndex.remove(itemId, bookingId, booking.getStart());
+        }
+        invalidateItems(Set.of(itemId));
+        List<Booking> bookings = bookingRepository.findAllByItemId(itemId);
+        return toBookingToReturnDto(booking, bookings);
+    }
+
+    private void invalidateItems(Set<Long> itemsId) {
+        itemRepository.touchAllById(itemsId, LocalDateTime.now());
+        searchCache.invalidate();
+        cardCache.invalidateAll(itemsId);
+    }
+
+    private void checkBooking(BookingToGetDto bookingGetDto) {
+        if (bookingGetDto.getItemId() == null) {
+            throw new InvalidBookingException("ID предмета не должен быть пустым.");
+        }
+        checkTimes(bookingGetDto);
+    }
+
+    private void checkTimes(BookingToGetDto bookingGetDto) {
+        if (bookingGetDto.getStart() == null) {
+            throw new InvalidBookingException("Начало бронирования должно быть указано.");
+        }
+        if (bookingGetDto.getEnd() == null) {
+            throw new InvalidBookingException("Конец бронирования должно быть указано.");
+        }
+        if (!bookingGetDto.getStart().isBefore(bookingGetDto.getEnd())) {
+            throw new InvalidBookingException("Время начала бронирования должно быть перед временем окончания.");
+        }
+    }
+
+    private void checkOverlap(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (intervalIndex.hasConflict(itemId, bookingId, start, end)) {
+            if (bookingRepository.existsApprovedOverlap(itemId, bookingId, start, end)) {
+                throw new BookingConflictException(itemId);
+            }
+            intervalIndex.evict(itemId);
+        }
+    }
+
+    private List<Booking> excludeApprovedOverlaps(List<Booking> bookings, Map<Long, String> errors) {
+        List<Booking> accepted = new ArrayList<>();
+        if (bookings.isEmpty()) {
+            return accepted;
+        }
+        Set<Long> itemsId = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemRepository.lockAllById(itemsId);
+        LocalDateTime from = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).get();
+        Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> intervalsByItem = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllApprovedOverlaps(itemsId, from, to)) {
+            intervalsByItem.computeIfAbsent(booking.getItem().getId(), id -> new TreeMap<>())
+                    .put(booking.getStart(), booking.getEnd());
+        }
+        bookings.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId));
+        for (Booking booking : bookings) {
+            Long itemId = booking.getItem().getId();
+            NavigableMap<LocalDateTime, LocalDateTime> intervals =
+                    intervalsByItem.computeIfAbsent(itemId, id -> new TreeMap<>());
+            Map.Entry<LocalDateTime, LocalDateTime> interval = intervals.lowerEntry(booking.getEnd());
+            if (interval != null && interval.getValue().isAfter(booking.getStart())) {
+                errors.put(booking.getId(), new BookingConflictException(itemId).getMessage());
+            } else {
+                intervals.put(booking.getStart(), booking.getEnd());
+                accepted.add(booking);
+            }
+        }
+        return accepted;
+    }
+
+    private void checkApprovedOverlap(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        itemRepository.lockById(itemId);
+        if (bookingRepository.existsApprovedOverlap(itemId, booking.getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingConflictException(itemId);
+        }
     }
 
     private void checkOwnerPermissions(Long ownerId, Booking booking) {
@@ -170,34 +467,13 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private User checkUserExistence(Long userId) {
-        try {
-            User user = userRepository.getReferenceById(userId);
-            System.out.println(user);
-            return user;
-        } catch (EntityNotFoundException e) {
-            throw new UserNotFoundException(userId);
-        }
-    }
-
     private Booking checkBookingExistence(Long bookingId) {
-        try {
-            Booking booking = bookingRepository.getReferenceById(bookingId);
-            System.out.println(booking);
-            return booking;
-        } catch (EntityNotFoundException e) {
-            throw new BookingNotFoundException(bookingId);
-        }
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
     }
 
     private Item checkAvailability(Long userId, Long itemId) {
-        Item item;
-        try {
-            item = itemRepository.getReferenceById(itemId);
-            System.out.println(item);
-        } catch (EntityNotFoundException e) {
-            throw new ItemNotFoundException(itemId);
-        }
+        Item item = entityLookup.getItem(itemId);
         if (item.getOwner().getId().equals(userId)) {
             throw new NoPermissionException(itemId);
         }
@@ -207,17 +483,58 @@ public class BookingServiceImpl implements BookingService {
         return item;
     }
 
-    private List<BookingToReturnDto> toBookingToReturnDtoList(List<Booking> bookings) {
+    private List<BookingToReturnDto> toBookingToReturnDtoList(List<Booking> bookings, Fields fields) {
         List<BookingToReturnDto> bookingToReturnDto = new ArrayList<>();
-        List<Comment> itemComments;
-        List<Booking> itemBookings;
+        if (bookings.isEmpty()) {
+            return bookingToReturnDto;
+        }
+        if (!fields.contains("item")) {
+            for (Booking booking : bookings) {
+                bookingToReturnDto.add(bookingMapper.toReturnDto(booking, new ArrayList<>(), new ArrayList<>(), 0L));
+            }
+            return bookingToReturnDto;
+        }
+        Set<Long> itemsId = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        Map<Long, List<Booking>> bookingsByItem = bookingRepository.findAllByItemIdIn(itemsId).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        Map<Long, List<CommentToReturnDto>> commentsByItem = commentRepository
+                .findLatestByItemIdIn(itemsId, CommentMapper.LATEST_COMMENTS_SIZE).stream()
+                .sorted(Comparator.comparing(CommentForItemProjection::getCreated,
+                                Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                        .thenComparing(CommentForItemProjection::getId)
+                        .reversed())
+                .collect(Collectors.groupingBy(CommentForItemProjection::getItemId,
+                        Collectors.mapping(commentMapper::toReturnDto, Collectors.toList())));
+        Set<Long> truncatedItemsId = commentsByItem.entrySet().stream()
+                .filter(entry -> entry.getValue().size() == CommentMapper.LATEST_COMMENTS_SIZE)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        Map<Long, Long> commentCounts = truncatedItemsId.isEmpty()
+                ? new HashMap<>()
+                : commentRepository.countAllByItemIdIn(truncatedItemsId).stream()
+                .collect(Collectors.toMap(ItemCountProjection::getItemId, ItemCountProjection::getCount));
         for (Booking booking : bookings) {
-            itemComments = commentRepository.findAllByItemId(booking.getItem().getId());
-            itemBookings = bookingRepository.findAllByItemId(booking.getItem().getId());
-            bookingToReturnDto.add(bookingMapper.toReturnDto(booking, itemBookings, itemComments));
+            Long itemId = booking.getItem().getId();
+            List<CommentToReturnDto> comments = commentsByItem.getOrDefault(itemId, new ArrayList<>());
+            bookingToReturnDto.add(bookingMapper.toReturnDto(booking,
+                    bookingsByItem.getOrDefault(itemId, new ArrayList<>()),
+                    comments,
+                    commentCounts.getOrDefault(itemId, (long) comments.size())));
         }
         return bookingToReturnDto;
     }
 
+    private BookingToReturnDto toBookingToReturnDto(Booking booking, List<Booking> itemBookings) {
+        Long itemId = booking.getItem().getId();
+        List<Comment> comments = commentRepository.findLatestByItemId(itemId,
+                PageRequest.of(0, CommentMapper.LATEST_COMMENTS_SIZE));
+        long commentCount = comments.size() < CommentMapper.LATEST_COMMENTS_SIZE
+                ? comments.size()
+                : commentRepository.countAllByItemId(itemId);
+        return bookingMapper.toReturnDto(booking, itemBookings, commentMapper.toReturnDtoList(comments), commentCount);
+    }
+
 
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.time.LocalDateTime;
+
+public interface CommentForItemProjection {
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+}
@@ -11,6 +11,7 @@ import java.util.List;
 
 @Component
 public class CommentMapper {
+    public static final int LATEST_COMMENTS_SIZE = 10;
 
     public Comment toEntity(CommentToGetDto commentToGetDto, User author, Item item) {
         Comment comment = new Comment();
@@ -27,6 +28,13 @@ public class CommentMapper {
         return listToReturn;
     }
 
+    public CommentToReturnDto toReturnDto(CommentForItemProjection comment) {
+        return new CommentToReturnDto(comment.getId(),
+                                      comment.getText(),
+                                      comment.getAuthorName(),
+                                      comment.getCreated());
+    }
+
     public CommentToReturnDto toReturnDto(Comment comment) {
         return new CommentToReturnDto(comment.getId(),
                                       comment.getText(),
@@ -1,10 +1,51 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.comment.dto.CommentForItemProjection;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface JpaCommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph("Comment.withAuthor")
+    @Query("select c from Comment c where c.item.id = :itemId")
     List<Comment> findAllByItemId(Long itemId);
+
+    @EntityGraph("Comment.withAuthor")
+    @Query("select c from Comment c where c.item.id in :itemIds")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @EntityGraph("Comment.withAuthor")
+    @Query("select c from Comment c where c.item.id = :itemId order by c.created desc, c.id desc")
+    List<Comment> findLatestByItemId(Long itemId, Pageable page);
+
+    @EntityGraph("Comment.withAuthor")
+    @Query("select c from Comment c where c.item.id = :itemId " +
+            "and (c.created < :created or (c.created = :created and c.id < :id)) " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findAllByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable page);
+
+    @Query(value = "select id, text, authorName, created, itemId " +
+            "from (select c.id, c.text, u.name as authorName, c.created, c.item_id as itemId, " +
+            "row_number() over (partition by c.item_id order by c.created desc, c.id desc) as rn " +
+            "from comments c " +
+            "join users u on u.id = c.author_id " +
+            "where c.item_id in (:itemIds)) as latest_comments " +
+            "where rn <= :size",
+            nativeQuery = true)
+    List<CommentForItemProjection> findLatestByItemIdIn(Collection<Long> itemIds, Integer size);
+
+    @Query("select count(c) from Comment c where c.item.id = :itemId")
+    Long countAllByItemId(Long itemId);
+
+    @Query("select c.item.id as itemId, count(c) as count from Comment c " +
+            "where c.item.id in :itemIds " +
+            "group by c.item.id")
+    List<ItemCountProjection> countAllByItemIdIn(Collection<Long> itemIds);
 }
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.comment.service;
 
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.comment.dto.CommentToGetDto;
 import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 
+import java.util.List;
+
 public interface CommentService {
 
     CommentToReturnDto getById(Long commentId);
 
+    List<CommentToReturnDto> getItemComments(Long itemId, Long userId, KeysetCursor cursor, Integer size);
+
     CommentToReturnDto add(CommentToGetDto comment, Long userId, Long itemId);
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.comment.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentToGetDto;
@@ -9,24 +12,28 @@ import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
 import ru.practicum.shareit.exception.CommentNotFoundException;
-import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UnavailableException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.lookup.EntityLookupService;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CommentServiceImpl implements CommentService {
     final JpaCommentRepository commentRepository;
-    final JpaUserRepository userRepository;
-    final JpaItemRepository itemRepository;
     final JpaBookingRepository bookingRepository;
+    final JpaItemRepository itemRepository;
     final CommentMapper commentMapper;
+    final ItemSearchCache searchCache;
+    final ItemCardCache cardCache;
+    final EntityLookupService entityLookup;
 
 
     @Override
@@ -35,48 +42,34 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    public List<CommentToReturnDto> getItemComments(Long itemId, Long userId, KeysetCursor cursor, Integer size) {
+        entityLookup.getUser(userId);
+        entityLookup.getItem(itemId);
+        return commentMapper.toReturnDtoList(commentRepository.findAllByItemIdBefore(itemId,
+                cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional
     public CommentToReturnDto add(CommentToGetDto comment, Long userId, Long itemId) {
-        User author = checkUserExistence(userId);
-        Item item = checkItemExistence(itemId);
+        User author = entityLookup.getUser(userId);
+        Item item = entityLookup.getItem(itemId);
         if (item.getOwner().getId().equals(author.getId())) {
             throw new UnavailableException("Нельзя прокомментировать вещь, которой Вы владеете");
         }
         if (bookingRepository.findAllSuccessfulBookings(userId, itemId).isEmpty()) {
             throw new UnavailableException("Нельзя прокомментировать вещь, которую не бронировали.");
         }
-        return commentMapper.toReturnDto(
-                commentRepository.save(commentMapper.toEntity(comment, author, item)));
-    }
-
-    private User checkUserExistence(Long userId) {
-        try {
-            User user = userRepository.getReferenceById(userId);
-            System.out.println(user);
-            return user;
-        } catch (EntityNotFoundException e) {
-            throw new UserNotFoundException(userId);
-        }
-    }
-
-    private Item checkItemExistence(Long itemId) {
-        try {
-            Item item = itemRepository.getReferenceById(itemId);
-            System.out.println(item);
-            return item;
-
-        } catch (EntityNotFoundException e) {
-            throw new ItemNotFoundException(itemId);
-        }
+        Comment savedComment = commentRepository.save(commentMapper.toEntity(comment, author, item));
+        itemRepository.touchAllById(Set.of(itemId), LocalDateTime.now());
+        searchCache.invalidate();
+        cardCache.invalidate(itemId);
+        return commentMapper.toReturnDto(savedComment);
     }
 
     private Comment checkCommentExistence(Long commentId) {
-        try {
-            Comment comment = commentRepository.getReferenceById(commentId);
-            System.out.println(comment);
-            return comment;
-        } catch (EntityNotFoundException e) {
-            throw new CommentNotFoundException(commentId);
-        }
+        return commentRepository.findById(commentId)
+                .orElseThrow(() -> new CommentNotFoundException(commentId));
     }
 
 }
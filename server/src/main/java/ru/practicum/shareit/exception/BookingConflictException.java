@@ -0,0 +1,9 @@
+package ru.practicum.shareit.exception;
+
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(Long itemId) {
+        super("Вещь с ID=" + itemId + " уже забронирована на выбранный период.");
+    }
+
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidBookingException extends RuntimeException {
+
+    public InvalidBookingException(String message) {
+        super(message);
+    }
+
+}
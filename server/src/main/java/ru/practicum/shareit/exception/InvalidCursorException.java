@@ -0,0 +1,9 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Некорректное значение параметра 'cursor'=" + cursor);
+    }
+
+}
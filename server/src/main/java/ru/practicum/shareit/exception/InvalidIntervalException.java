@@ -0,0 +1,9 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidIntervalException extends RuntimeException {
+
+    public InvalidIntervalException(String message) {
+        super(message);
+    }
+
+}
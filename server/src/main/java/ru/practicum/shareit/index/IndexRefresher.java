@@ -0,0 +1,96 @@
+package ru.practicum.shareit.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemNameIndex;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemTrigramIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+public class IndexRefresher {
+    static final Duration OVERLAP = Duration.ofMinutes(5);
+    static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 1000;
+    final JpaItemRepository itemRepository;
+    final JpaItemRequestRepository requestRepository;
+    final ItemTrigramIndex trigramIndex;
+    final ItemNameIndex nameIndex;
+    final ItemRequestIndex requestIndex;
+    final ItemSearchCache searchCache;
+    final ItemCardCache cardCache;
+    final Map<Long, LocalDateTime> itemsSeen = new HashMap<>();
+    private LocalDateTime itemsSince = EPOCH;
+    private LocalDateTime requestsSince = EPOCH;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.index.refresh-millis:5000}",
+            initialDelayString = "${shareit.index.refresh-millis:5000}")
+    public synchronized void refresh() {
+        boolean initial = EPOCH.equals(itemsSince);
+        Set<Long> changed = new HashSet<>();
+        itemsSince = refresh(itemsSince,
+                (updated, id) -> itemRepository.findAllUpdatedAfter(updated, id, PageRequest.of(0, BATCH_SIZE)),
+                Item::getUpdated, Item::getId, item -> {
+                    trigramIndex.put(item);
+                    nameIndex.put(item);
+                    if (!item.getUpdated().equals(itemsSeen.put(item.getId(), item.getUpdated()))) {
+                        changed.add(item.getId());
+                    }
+                });
+        itemsSeen.values().removeIf(updated -> updated.isBefore(itemsSince));
+        if (!initial && !changed.isEmpty()) {
+            searchCache.invalidate();
+            cardCache.invalidateAll(changed);
+        }
+        requestsSince = refresh(requestsSince,
+                (created, id) -> requestRepository.findAllCreatedAfter(created, id, PageRequest.of(0, BATCH_SIZE)),
+                ItemRequest::getCreated, ItemRequest::getId, requestIndex::add);
+    }
+
+    private static <T> LocalDateTime refresh(LocalDateTime since, Finder<T> finder,
+                                             Function<T, LocalDateTime> timestampGetter,
+                                             Function<T, Long> idGetter, Consumer<T> indexer) {
+        LocalDateTime timestamp = since;
+        long id = 0;
+        List<T> entities;
+        do {
+            entities = finder.find(timestamp, id);
+            for (T entity : entities) {
+                indexer.accept(entity);
+                timestamp = timestampGetter.apply(entity);
+                id = idGetter.apply(entity);
+            }
+        } while (entities.size() == BATCH_SIZE);
+        LocalDateTime next = timestamp.minus(OVERLAP);
+        return next.isAfter(since) ? next : since;
+    }
+
+    interface Finder<T> {
+        List<T> find(LocalDateTime timestamp, long id);
+    }
+}
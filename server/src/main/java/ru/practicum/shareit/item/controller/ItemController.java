@@ -1,19 +1,33 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Create;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.Ndjson;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.comment.dto.CommentToGetDto;
 import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.service.CommentService;
 import ru.practicum.shareit.exception.InvalidIdException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,17 +35,21 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 public class ItemController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     @Qualifier("itemServiceImpl")
     final ItemService itemService;
     @Qualifier("commentServiceImpl")
     final CommentService commentService;
+    final ObjectMapper objectMapper;
 
 
     @GetMapping
-    public List<ItemToReturnDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                        @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                        @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemService.getByOwnerId(userId, from, size);
+    public List<?> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                          @RequestParam(name = "from", defaultValue = "0") Integer from,
+                          @RequestParam(name = "size", defaultValue = "10") Integer size,
+                          @RequestParam(name = "fields", required = false) String fields) {
+        Fields selected = Fields.parse(fields);
+        return selected.select(objectMapper, itemService.getByOwnerId(userId, from, size, selected));
     }
 
     @GetMapping("/{itemId}")
@@ -63,10 +81,65 @@ public class ItemController {
         return commentService.add(commentToGetDto, userId, itemId);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentToReturnDto>> getComments(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        List<CommentToReturnDto> comments = commentService.getItemComments(itemId, userId,
+                KeysetCursor.decode(cursor), size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (comments.size() == size) {
+            CommentToReturnDto last = comments.get(comments.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(comments);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<ItemAvailabilityDto> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, userId, from, to);
+    }
+
+    @GetMapping(value = "/{itemId}/availability", produces = Ndjson.MEDIA_TYPE)
+    public void streamAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Ndjson.<ItemAvailabilityDto>write(request, response, objectMapper,
+                consumer -> itemService.streamAvailability(itemId, userId, from, to, consumer));
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                           @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.suggest(prefix, size);
+    }
+
     @GetMapping("/search")
-    public List<ItemToReturnDto> search(@RequestParam(name = "text", defaultValue = "") String text,
-                                        @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                        @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return itemService.search(text, from, size);
+    public List<?> search(@RequestParam(name = "text", defaultValue = "") String text,
+                          @RequestParam(name = "from", defaultValue = "0") Integer from,
+                          @RequestParam(name = "size", defaultValue = "10") Integer size,
+                          @RequestParam(name = "mode", defaultValue = "FULLTEXT") String mode,
+                          @RequestParam(name = "order", defaultValue = "ID") String order,
+                          @RequestParam(name = "fields", required = false) String fields,
+                          @RequestParam(name = "start", required = false)
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                          @RequestParam(name = "end", required = false)
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        Fields selected = Fields.parse(fields);
+        if (start == null && end == null) {
+            return selected.select(objectMapper, itemService.search(text, SearchMode.valueOf(mode),
+                    SearchOrder.valueOf(order.toUpperCase()), from, size, selected));
+        }
+        return selected.select(objectMapper, itemService.search(text, SearchMode.valueOf(mode),
+                SearchOrder.valueOf(order.toUpperCase()), start, end, from, size, selected));
     }
 }
@@ -2,8 +2,10 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -41,13 +43,25 @@ public class ItemMapper {
     public ItemToReturnDto toReturnDto(Item item,
                                        List<BookingForItemDto> bookings,
                                        List<Comment> comments) {
+        return toReturnDto(item, bookings, commentMapper.toReturnDtoList(comments), (long) comments.size());
+    }
+
+    public ItemToReturnDto toReturnDto(Item item,
+                                       List<BookingForItemDto> bookings,
+                                       List<CommentToReturnDto> comments,
+                                       Long commentCount) {
         ItemToReturnDto itemToReturnDto = new ItemToReturnDto();
         itemToReturnDto.setId(item.getId());
         itemToReturnDto.setName(item.getName());
         itemToReturnDto.setDescription(item.getDescription());
         itemToReturnDto.setAvailable(item.getAvailable());
         itemToReturnDto.setRequestId(item.getRequestId());
-        itemToReturnDto.setComments(commentMapper.toReturnDtoList(comments));
+        itemToReturnDto.setComments(comments);
+        itemToReturnDto.setCommentCount(commentCount);
+        if (!comments.isEmpty() && commentCount > comments.size()) {
+            CommentToReturnDto last = comments.get(comments.size() - 1);
+            itemToReturnDto.setCommentsCursor(new KeysetCursor(last.getCreated(), last.getId()).encode());
+        }
         LocalDateTime now = LocalDateTime.now();
         if (!bookings.isEmpty()) {
             for (BookingForItemDto booking : bookings) {
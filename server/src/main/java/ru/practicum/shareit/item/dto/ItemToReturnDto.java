@@ -22,4 +22,6 @@ public class ItemToReturnDto {
     private BookingForItemDto nextBooking;
     private Long requestId;
     private List<CommentToReturnDto> comments;
+    private Long commentCount;
+    private String commentsCursor;
 }
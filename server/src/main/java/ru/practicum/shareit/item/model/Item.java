@@ -4,6 +4,7 @@ import lombok.*;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -24,9 +25,17 @@ public class Item {
     private String description;
     @Column(name = "is_available")
     private Boolean available;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
     @Column
     private Long requestId;
+    @Column
+    private LocalDateTime updated;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updated = LocalDateTime.now();
+    }
 }
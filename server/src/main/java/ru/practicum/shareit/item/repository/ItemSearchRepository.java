@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchRepository {
+
+    List<Item> searchFullText(String text, Pageable page);
+
+    List<Item> searchFullTextAvailable(String text, LocalDateTime start, LocalDateTime end, Pageable page);
+
+    List<ItemTextDto> searchFullTextAfter(String text, Long id, int size);
+
+    List<ItemTextDto> searchFullTextAvailableAfter(String text, LocalDateTime start, LocalDateTime end, Long id, int size);
+}
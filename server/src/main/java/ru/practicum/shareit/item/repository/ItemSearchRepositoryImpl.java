@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ItemSearchRepositoryImpl implements ItemSearchRepository {
+    private static final String ITEMS = "select i.* ";
+    private static final String TEXTS = "select i.id, i.name, i.description ";
+    private static final String POSTGRESQL_SEARCH = "from items i " +
+            "where i.is_available " +
+            "and i.search_vector @@ plainto_tsquery('simple', :text) ";
+    private static final String H2_SEARCH = "from items i " +
+            "join ft_search_data(:text, 0, 0) ft on i.id = cast(ft.keys[1] as bigint) " +
+            "where ft.\"TABLE\" = 'ITEMS' " +
+            "and i.is_available ";
+    private static final String NOT_BOOKED = "and not exists (select 1 from bookings b where b.item_id = i.id " +
+            "and b.status = 'APPROVED' " +
+            "and b.start_date < :end " +
+            "and b.end_date > :start) ";
+    private static final String AFTER = "and i.id > :id ";
+    private static final String ORDER = "order by i.id";
+    final EntityManager entityManager;
+    final String search;
+
+    public ItemSearchRepositoryImpl(EntityManager entityManager, DataSource dataSource) {
+        this.entityManager = entityManager;
+        this.search = getSearch(dataSource);
+    }
+
+    @Override
+    public List<Item> searchFullText(String text, Pageable page) {
+        return getPage(entityManager.createNativeQuery(ITEMS + search + ORDER, Item.class)
+                .setParameter("text", text), page);
+    }
+
+    @Override
+    public List<Item> searchFullTextAvailable(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        return getPage(entityManager.createNativeQuery(ITEMS + search + NOT_BOOKED + ORDER, Item.class)
+                .setParameter("text", text)
+                .setParameter("start", start)
+                .setParameter("end", end), page);
+    }
+
+    @Override
+    public List<ItemTextDto> searchFullTextAfter(String text, Long id, int size) {
+        return getTexts(entityManager.createNativeQuery(TEXTS + search + AFTER + ORDER)
+                .setParameter("text", text)
+                .setParameter("id", id), size);
+    }
+
+    @Override
+    public List<ItemTextDto> searchFullTextAvailableAfter(String text, LocalDateTime start, LocalDateTime end,
+                                                          Long id, int size) {
+        return getTexts(entityManager.createNativeQuery(TEXTS + search + NOT_BOOKED + AFTER + ORDER)
+                .setParameter("text", text)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("id", id), size);
+    }
+
+    static String getSearch(DataSource dataSource) {
+        String product;
+        try {
+            product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Не удалось определить тип базы данных", e);
+        }
+        switch (product) {
+            case "PostgreSQL":
+                return POSTGRESQL_SEARCH;
+            case "H2":
+                return H2_SEARCH;
+            default:
+                throw new IllegalStateException("Полнотекстовый поиск не поддерживается для базы данных " + product);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Item> getPage(Query query, Pageable page) {
+        return query
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ItemTextDto> getTexts(Query query, int size) {
+        List<Object[]> rows = query
+                .setMaxResults(size)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new ItemTextDto(((Number) row[0]).longValue(), (String) row[1], (String) row[2]))
+                .collect(Collectors.toList());
+    }
+}
@@ -2,22 +2,118 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemTextDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface JpaItemRepository extends JpaRepository<Item, Long> {
+public interface JpaItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
 
+    @Query("select i from Item i where i.owner.id = :ownerId order by i.id")
     List<Item> findAllByOwnerIdOrderById(Long ownerId, Pageable page);
 
     List<Item> findAllByRequestIdIn(Set<Long> ids);
 
     List<Item> findAllByRequestId(Long id);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> lockById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> lockAllById(Collection<Long> ids);
+
     @Query("select i from Item i where i.available is TRUE " +
             "and (upper(i.description) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.name) like upper(concat('%', ?1, '%')))")
+            "or upper(i.name) like upper(concat('%', ?1, '%'))) " +
+            "order by i.id")
     List<Item> search(String text, Pageable page);
+
+    @Query("select i from Item i where i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item.id = i.id " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start) " +
+            "order by i.id")
+    List<Item> searchAvailable(String text, LocalDateTime start, LocalDateTime end, Pageable page);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemTextDto(i.id, i.name, i.description) " +
+            "from Item i where i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "and i.id > :id " +
+            "order by i.id")
+    List<ItemTextDto> searchAfter(String text, Long id, Pageable page);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemTextDto(i.id, i.name, i.description) " +
+            "from Item i where i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item.id = i.id " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start) " +
+            "and i.id > :id " +
+            "order by i.id")
+    List<ItemTextDto> searchAvailableAfter(String text, LocalDateTime start, LocalDateTime end, Long id,
+                                           Pageable page);
+
+    @Query("select i from Item i where i.id in :ids " +
+            "and i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "order by i.id")
+    List<Item> searchAllById(Collection<Long> ids, String text);
+
+    @Query("select i from Item i where i.id in :ids " +
+            "and i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item.id = i.id " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start) " +
+            "order by i.id")
+    List<Item> searchAllAvailableById(Collection<Long> ids, String text, LocalDateTime start, LocalDateTime end);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemTextDto(i.id, i.name, i.description) " +
+            "from Item i where i.id in :ids " +
+            "and i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "order by i.id")
+    List<ItemTextDto> searchTextAllById(Collection<Long> ids, String text);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemTextDto(i.id, i.name, i.description) " +
+            "from Item i where i.id in :ids " +
+            "and i.available is TRUE " +
+            "and (upper(i.description) like upper(concat('%', :text, '%')) " +
+            "or upper(i.name) like upper(concat('%', :text, '%'))) " +
+            "and not exists (select b.id from Booking b where b.item.id = i.id " +
+            "and b.status = 'APPROVED' " +
+            "and b.start < :end " +
+            "and b.end > :start) " +
+            "order by i.id")
+    List<ItemTextDto> searchTextAllAvailableById(Collection<Long> ids, String text, LocalDateTime start,
+                                                 LocalDateTime end);
+
+    @Modifying
+    @Query("update Item i set i.updated = :updated where i.id in :ids")
+    void touchAllById(Collection<Long> ids, LocalDateTime updated);
+
+    @Query("select i from Item i where i.updated >= :updated " +
+            "and (i.updated > :updated or i.id > :id) " +
+            "order by i.updated, i.id")
+    List<Item> findAllUpdatedAfter(LocalDateTime updated, Long id, Pageable page);
 }
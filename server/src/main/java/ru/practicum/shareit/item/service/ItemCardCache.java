@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.CacheGeneration;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class ItemCardCache {
+    static final int MAX_SIZE = 10_000;
+    static final long TTL_MINUTES = 5;
+    final CacheGeneration version = new CacheGeneration();
+    final Map<Long, Card> cards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Card> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+    final Counter hits;
+    final Counter misses;
+
+    public ItemCardCache(MeterRegistry meterRegistry) {
+        hits = meterRegistry.counter("item.card.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("item.card.cache.requests", "result", "miss");
+        Gauge.builder("item.card.cache.size", this, ItemCardCache::size).register(meterRegistry);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public synchronized ItemToReturnDto get(Long itemId, Long userId) {
+        Card card = cards.get(itemId);
+        View view = card == null ? null : card.getView(userId);
+        if (view == null || view.expiresAt.isBefore(LocalDateTime.now())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return view.item;
+    }
+
+    public synchronized void put(Long ownerId, Long userId, ItemToReturnDto item, long version) {
+        if (version != this.version.get()) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(TTL_MINUTES);
+        if (item.getNextBooking() != null && item.getNextBooking().getStart().isBefore(expiresAt)) {
+            expiresAt = item.getNextBooking().getStart();
+        }
+        View view = new View(item, expiresAt);
+        Card card = cards.get(item.getId());
+        if (card == null) {
+            card = new Card(ownerId);
+            cards.put(item.getId(), card);
+        }
+        if (ownerId.equals(userId)) {
+            card.ownerView = view;
+        } else {
+            card.publicView = view;
+        }
+    }
+
+    public void invalidate(Long itemId) {
+        version.invalidate(() -> evict(itemId));
+    }
+
+    public void invalidateAll(Collection<Long> itemIds) {
+        itemIds.forEach(this::invalidate);
+    }
+
+    synchronized int size() {
+        return cards.size();
+    }
+
+    private synchronized void evict(Long itemId) {
+        cards.remove(itemId);
+    }
+
+    static class Card {
+        final Long ownerId;
+        View ownerView;
+        View publicView;
+
+        Card(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        View getView(Long userId) {
+            return ownerId.equals(userId) ? ownerView : publicView;
+        }
+    }
+
+    static class View {
+        final ItemToReturnDto item;
+        final LocalDateTime expiresAt;
+
+        View(ItemToReturnDto item, LocalDateTime expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Component
+public class ItemNameIndex {
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final char MAX_CHAR = '\uffff';
+    final NavigableMap<String, ItemSuggestionDto> suggestionsByKey = new ConcurrentSkipListMap<>();
+    final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+    public void put(Item item) {
+        synchronized (this) {
+            String oldKey = keysById.remove(item.getId());
+            if (oldKey != null) {
+                suggestionsByKey.remove(oldKey);
+            }
+            if (item.getAvailable()) {
+                String key = normalize(item.getName()) + KEY_SEPARATOR + String.format("%019d", item.getId());
+                suggestionsByKey.put(key, new ItemSuggestionDto(item.getId(), item.getName()));
+                keysById.put(item.getId(), key);
+            }
+        }
+    }
+
+    public List<ItemSuggestionDto> findByPrefix(String prefix, int size) {
+        String from = normalize(prefix);
+        List<ItemSuggestionDto> suggestions = new ArrayList<>();
+        for (ItemSuggestionDto suggestion : suggestionsByKey.subMap(from, from + MAX_CHAR).values()) {
+            if (suggestions.size() == size) {
+                break;
+            }
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    private static String normalize(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+class ItemRanking {
+    private static final double NAME_TOKEN_WEIGHT = 8;
+    private static final double NAME_SUBSTRING_WEIGHT = 4;
+    private static final double DESCRIPTION_TOKEN_WEIGHT = 2;
+    private static final double DESCRIPTION_SUBSTRING_WEIGHT = 1;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<ScoredItem> BEST_FIRST = Comparator.comparingDouble(ScoredItem::getScore)
+            .reversed()
+            .thenComparing(ScoredItem::getId);
+    private final Set<String> queryTokens;
+    private final int limit;
+    private final PriorityQueue<ScoredItem> worstFirst;
+
+    ItemRanking(String text, int limit) {
+        this.queryTokens = tokens(text);
+        this.limit = limit;
+        this.worstFirst = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+    }
+
+    void offer(ItemTextDto item, long comments, long recentBookings) {
+        ScoredItem scoredItem = new ScoredItem(item.getId(), score(item, comments, recentBookings));
+        if (worstFirst.size() < limit) {
+            worstFirst.add(scoredItem);
+        } else if (BEST_FIRST.compare(scoredItem, worstFirst.peek()) < 0) {
+            worstFirst.poll();
+            worstFirst.add(scoredItem);
+        }
+    }
+
+    List<Long> getPage(int offset) {
+        List<ScoredItem> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(BEST_FIRST);
+        return ranked.stream()
+                .skip(offset)
+                .map(ScoredItem::getId)
+                .collect(Collectors.toList());
+    }
+
+    private double score(ItemTextDto item, long comments, long recentBookings) {
+        String name = item.getName().toUpperCase(Locale.ROOT);
+        String description = item.getDescription().toUpperCase(Locale.ROOT);
+        Set<String> nameTokens = tokens(name);
+        Set<String> descriptionTokens = tokens(description);
+        double score = 0;
+        for (String token : queryTokens) {
+            if (nameTokens.contains(token)) {
+                score += NAME_TOKEN_WEIGHT;
+            } else if (name.contains(token)) {
+                score += NAME_SUBSTRING_WEIGHT;
+            }
+            if (descriptionTokens.contains(token)) {
+                score += DESCRIPTION_TOKEN_WEIGHT;
+            } else if (description.contains(token)) {
+                score += DESCRIPTION_SUBSTRING_WEIGHT;
+            }
+        }
+        return score + Math.log1p(comments) + Math.log1p(recentBookings);
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>(Arrays.asList(TOKEN_SEPARATOR.split(text.toUpperCase(Locale.ROOT))));
+        tokens.remove("");
+        return tokens;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class ScoredItem {
+        private final Long id;
+        private final double score;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.CacheGeneration;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class ItemSearchCache {
+    static final int MAX_WEIGHT = 10_000;
+    static final long TTL_MILLIS = 60_000;
+    final CacheGeneration generation = new CacheGeneration();
+    final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    final Counter hits;
+    final Counter misses;
+    final Counter evictions;
+    private int weight;
+
+    public ItemSearchCache(MeterRegistry meterRegistry) {
+        hits = meterRegistry.counter("item.search.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("item.search.cache.requests", "result", "miss");
+        evictions = meterRegistry.counter("item.search.cache.evictions");
+        Gauge.builder("item.search.cache.size", this, ItemSearchCache::size).register(meterRegistry);
+        Gauge.builder("item.search.cache.weight", this, ItemSearchCache::weight).register(meterRegistry);
+    }
+
+    public static String key(String text, SearchMode mode, SearchOrder order, Integer from, Integer size) {
+        return key(text, mode, order, from, size, Fields.ALL);
+    }
+
+    public static String key(String text, SearchMode mode, SearchOrder order, Integer from, Integer size,
+                             Fields fields) {
+        return key(text, mode, order, null, null, from, size, fields);
+    }
+
+    public static String key(String text, SearchMode mode, SearchOrder order, LocalDateTime start,
+                             LocalDateTime end, Integer from, Integer size, Fields fields) {
+        return mode + ":" + order + ":" + (from / size) * size + ":" + size + ":" + fields + ":"
+                + (start == null ? "" : start + "/" + end) + ":" + text.toUpperCase(Locale.ROOT);
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void invalidate() {
+        generation.invalidate();
+    }
+
+    public synchronized List<ItemToReturnDto> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.generation != generation.get() || entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            weight -= entry.weight;
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.items;
+    }
+
+    public synchronized void put(String key, long generation, List<ItemToReturnDto> items) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        Entry entry = new Entry(Collections.unmodifiableList(items), generation,
+                System.currentTimeMillis() + TTL_MILLIS, Math.max(1, items.size()));
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            weight -= old.weight;
+        }
+        weight += entry.weight;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (weight > MAX_WEIGHT && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            weight -= eldest.weight;
+            if (eldest.generation == generation) {
+                evictions.increment();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized int weight() {
+        return weight;
+    }
+
+    static class Entry {
+        final List<ItemToReturnDto> items;
+        final long generation;
+        final long expiresAt;
+        final int weight;
+
+        Entry(List<ItemToReturnDto> items, long generation, long expiresAt, int weight) {
+            this.items = items;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
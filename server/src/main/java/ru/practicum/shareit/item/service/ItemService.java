@@ -1,9 +1,16 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
@@ -11,9 +18,25 @@ public interface ItemService {
 
     List<ItemToReturnDto> getByOwnerId(Long userId, Integer from, Integer size);
 
+    List<ItemToReturnDto> getByOwnerId(Long userId, Integer from, Integer size, Fields fields);
+
     ItemToReturnDto add(ItemToGetDto itemToGetDto, Long userId);
 
     ItemToReturnDto update(ItemToGetDto itemToGetDto, Long itemId, Long userId);
 
-    List<ItemToReturnDto> search(String text, Integer from, Integer size);
+    List<ItemAvailabilityDto> getAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to);
+
+    void streamAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to,
+                            Consumer<ItemAvailabilityDto> consumer);
+
+    List<ItemSuggestionDto> suggest(String prefix, Integer size);
+
+    List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order, Integer from, Integer size);
+
+    List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order, Integer from, Integer size,
+                                 Fields fields);
+
+    List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order,
+                                 LocalDateTime start, LocalDateTime end,
+                                 Integer from, Integer size, Fields fields);
 }
@@ -4,79 +4,129 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.Fields;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingForItemProjection;
+import ru.practicum.shareit.booking.dto.BookingIntervalProjection;
 import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
+import ru.practicum.shareit.comment.dto.CommentForItemProjection;
+import ru.practicum.shareit.comment.dto.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
-import ru.practicum.shareit.exception.ItemNotFoundException;
-import ru.practicum.shareit.exception.NoPermissionException;
-import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.exception.InvalidIntervalException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemTextDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeedCache;
+import ru.practicum.shareit.request.service.ItemRequestIndex;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int CANDIDATES_BATCH_SIZE = 500;
+    private static final int MAX_RANKED_CANDIDATES = 10_000;
+    private static final int RECENT_BOOKINGS_DAYS = 30;
+    private static final int MAX_AVAILABILITY_DAYS = 366;
     final JpaItemRepository itemRepository;
-    final JpaUserRepository userRepository;
     final JpaBookingRepository bookingRepository;
     final JpaCommentRepository commentRepository;
     final ItemMapper itemMapper;
     final BookingMapper bookingMapper;
+    final CommentMapper commentMapper;
+    final ItemTrigramIndex trigramIndex;
+    final ItemNameIndex nameIndex;
+    final ItemSearchCache searchCache;
+    final ItemCardCache cardCache;
+    final ItemRequestFeedCache feedCache;
+    final ItemRequestIndex requestIndex;
+    final JpaItemRequestRepository requestRepository;
+    final EntityLookupService entityLookup;
 
     @Override
     public ItemToReturnDto getById(Long itemId, Long userId) {
-        checkUserExistence(userId);
-        Item item = checkItemExistence(itemId);
+        entityLookup.getUser(userId);
+        ItemToReturnDto cached = cardCache.get(itemId, userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = cardCache.getVersion();
+        Item item = entityLookup.getItem(itemId);
 
         List<BookingForItemDto> bookings = item.getOwner().getId().equals(userId)
-                ? bookingMapper.toForItemDtoList(bookingRepository.findAllByItemId(itemId)
+                ? bookingRepository.findLastAndNextBookings(Set.of(itemId), LocalDateTime.now())
                 .stream()
-                .filter(booking -> !booking.getStatus().equals(Status.REJECTED))
-                .filter(booking -> !booking.getStatus().equals(Status.CANCELED))
-                .collect(Collectors.toList()))
+                .map(bookingMapper::toForItemDto)
+                .collect(Collectors.toList())
                 : new ArrayList<>();
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        return itemMapper.toReturnDto(itemRepository.getReferenceById(itemId),
-                bookings,
-                comments);
+        ItemToReturnDto itemToReturnDto = toItemToReturnDto(item, bookings);
+        cardCache.put(item.getOwner().getId(), userId, itemToReturnDto, version);
+        return itemToReturnDto;
     }
 
     @Override
     public List<ItemToReturnDto> getByOwnerId(Long userId, Integer from, Integer size) {
-        checkUserExistence(userId);
+        return getByOwnerId(userId, from, size, Fields.ALL);
+    }
+
+    @Override
+    public List<ItemToReturnDto> getByOwnerId(Long userId, Integer from, Integer size, Fields fields) {
+        entityLookup.getUser(userId);
         Pageable page = PageRequest.of(from / size, size);
 //        List<Item> items = sublist(itemRepository.findAllByOwnerIdOrderById(userId), from, size);
-        return toItemToReturnDtoList(itemRepository.findAllByOwnerIdOrderById(userId, page));
+        return toItemToReturnDtoList(itemRepository.findAllByOwnerIdOrderById(userId, page), fields);
     }
 
     @Override
+    @Transactional
     public ItemToReturnDto add(ItemToGetDto newItem, Long userId) {
-        User user = checkUserExistence(userId);
+        User user = entityLookup.getUser(userId);
         Item item = itemMapper.toEntity(newItem);
         item.setOwner(user);
-        return itemMapper.toReturnDto(itemRepository.save(item), new ArrayList<>(), new ArrayList<>());
+        Item savedItem = itemRepository.save(item);
+        trigramIndex.put(savedItem);
+        nameIndex.put(savedItem);
+        searchCache.invalidate();
+        if (savedItem.getRequestId() != null) {
+            feedCache.invalidate();
+        } else {
+            addRequestMatches(savedItem);
+        }
+        return itemMapper.toReturnDto(savedItem, new ArrayList<>(), new ArrayList<>());
     }
 
     @Override
     public ItemToReturnDto update(ItemToGetDto itemToGetDto, Long itemId, Long userId) {
-        checkUserExistence(userId);
+        entityLookup.getUser(userId);
         itemToGetDto.setId(itemId);
-        Item oldItem = checkItemExistence(itemToGetDto.getId());
-        checkUserPermissions(oldItem, userId);
+        Item oldItem = entityLookup.getOwnedItem(itemToGetDto.getId(), userId);
 
         if (itemToGetDto.getName() != null) {
             oldItem.setName(itemToGetDto.getName());
@@ -90,57 +140,295 @@ public class ItemServiceImpl implements ItemService {
 
         List<BookingForItemDto> bookings = bookingMapper.toForItemDtoList(
                 bookingRepository.findAllByItemId(itemToGetDto.getId()));
-        List<Comment> comments = commentRepository.findAllByItemId(itemToGetDto.getId());
-        return itemMapper.toReturnDto(itemRepository.save(oldItem), bookings, comments);
+        Item savedItem = itemRepository.save(oldItem);
+        trigramIndex.put(savedItem);
+        nameIndex.put(savedItem);
+        searchCache.invalidate();
+        cardCache.invalidate(itemId);
+        if (oldItem.getRequestId() != null) {
+            feedCache.invalidate();
+        }
+        return toItemToReturnDto(savedItem, bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemAvailabilityDto> getAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to) {
+        List<ItemAvailabilityDto> intervals = new ArrayList<>();
+        streamAvailability(itemId, userId, from, to, intervals::add);
+        return intervals;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to,
+                                   Consumer<ItemAvailabilityDto> consumer) {
+        if (!from.isBefore(to)) {
+            throw new InvalidIntervalException("Начало периода должно быть раньше его окончания.");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new InvalidIntervalException("Период не может быть длиннее " + MAX_AVAILABILITY_DAYS + " дней.");
+        }
+        entityLookup.getUser(userId);
+        entityLookup.getItem(itemId);
+        LocalDateTime busyStart = null;
+        LocalDateTime busyEnd = from;
+        try (Stream<BookingIntervalProjection> bookings = bookingRepository.streamActiveIntervals(itemId, from, to)) {
+            Iterator<BookingIntervalProjection> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingIntervalProjection booking = iterator.next();
+                LocalDateTime start = booking.getStartDate().isBefore(from) ? from : booking.getStartDate();
+                LocalDateTime end = booking.getEndDate().isAfter(to) ? to : booking.getEndDate();
+                if (busyStart != null && !start.isAfter(busyEnd)) {
+                    if (end.isAfter(busyEnd)) {
+                        busyEnd = end;
+                    }
+                    continue;
+                }
+                if (busyStart != null) {
+                    consumer.accept(new ItemAvailabilityDto(busyStart, busyEnd, false));
+                }
+                if (start.isAfter(busyEnd)) {
+                    consumer.accept(new ItemAvailabilityDto(busyEnd, start, true));
+                }
+                busyStart = start;
+                busyEnd = end;
+            }
+        }
+        if (busyStart != null) {
+            consumer.accept(new ItemAvailabilityDto(busyStart, busyEnd, false));
+        }
+        if (busyEnd.isBefore(to)) {
+            consumer.accept(new ItemAvailabilityDto(busyEnd, to, true));
+        }
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggest(String prefix, Integer size) {
+        return nameIndex.findByPrefix(prefix, size);
+    }
+
+    @Override
+    public List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order, Integer from, Integer size) {
+        return search(text, mode, order, from, size, Fields.ALL);
     }
 
     @Override
-    public List<ItemToReturnDto> search(String text, Integer from, Integer size) {
+    public List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order, Integer from, Integer size,
+                                        Fields fields) {
+        return search(text, mode, order, null, null, from, size, fields);
+    }
+
+    @Override
+    public List<ItemToReturnDto> search(String text, SearchMode mode, SearchOrder order,
+                                        LocalDateTime start, LocalDateTime end,
+                                        Integer from, Integer size, Fields fields) {
+        if (start == null || end == null) {
+            start = null;
+            end = null;
+        }
+        String key = ItemSearchCache.key(text, mode, order, start, end, from, size, fields);
+        List<ItemToReturnDto> cached = searchCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = searchCache.getGeneration();
         Pageable page = PageRequest.of(from / size, size);
-        List<Item> items = itemRepository.search(text, page);
-        return toItemToReturnDtoList(items);
+        List<Item> items;
+        if (SearchOrder.RELEVANCE.equals(order)) {
+            items = searchByRelevance(text, mode, start, end, page);
+        } else {
+            items = SearchMode.SUBSTRING.equals(mode)
+                    ? searchSubstring(text, start, end, page)
+                    : searchFullText(text, start, end, page);
+        }
+        List<ItemToReturnDto> result = toItemToReturnDtoList(items, fields);
+        searchCache.put(key, generation, result);
+        return result;
     }
 
-    private void checkUserPermissions(Item item, Long userId) {
-        if (!item.getOwner().getId().equals(userId)) {
-            throw new NoPermissionException(userId);
+    private List<Item> searchSubstring(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        long[] candidates = trigramIndex.findCandidates(text);
+        if (candidates == null) {
+            return searchLike(text, start, end, page);
+        }
+        List<Item> items = new ArrayList<>();
+        long limit = page.getOffset() + page.getPageSize();
+        for (int from = 0; from < candidates.length && items.size() < limit; from += CANDIDATES_BATCH_SIZE) {
+            items.addAll(searchAllById(toIds(candidates, from), text, start, end));
         }
+        if (items.size() <= page.getOffset()) {
+            return new ArrayList<>();
+        }
+        return items.subList((int) page.getOffset(), (int) Math.min(items.size(), limit));
+    }
+
+    private List<Item> searchByRelevance(String text, SearchMode mode, LocalDateTime start, LocalDateTime end,
+                                         Pageable page) {
+        ItemRanking ranking = new ItemRanking(text, (int) page.getOffset() + page.getPageSize());
+        long[] candidates = SearchMode.SUBSTRING.equals(mode) ? trigramIndex.findCandidates(text) : null;
+        if (candidates != null) {
+            int limit = Math.min(candidates.length, MAX_RANKED_CANDIDATES);
+            for (int from = 0; from < limit; from += CANDIDATES_BATCH_SIZE) {
+                rank(ranking, searchTextAllById(toIds(candidates, from), text, start, end));
+            }
+        } else {
+            List<ItemTextDto> items;
+            long lastId = 0;
+            int scanned = 0;
+            do {
+                items = SearchMode.SUBSTRING.equals(mode)
+                        ? searchLikeAfter(text, start, end, lastId)
+                        : searchFullTextAfter(text, start, end, lastId);
+                rank(ranking, items);
+                scanned += items.size();
+                if (!items.isEmpty()) {
+                    lastId = items.get(items.size() - 1).getId();
+                }
+            } while (items.size() == CANDIDATES_BATCH_SIZE && scanned < MAX_RANKED_CANDIDATES);
+        }
+        List<Long> itemsId = ranking.getPage((int) page.getOffset());
+        Map<Long, Item> items = itemRepository.findAllById(itemsId).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemsId.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Item> searchLike(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        return start == null
+                ? itemRepository.search(text, page)
+                : itemRepository.searchAvailable(text, start, end, page);
+    }
+
+    private List<ItemTextDto> searchLikeAfter(String text, LocalDateTime start, LocalDateTime end, long lastId) {
+        Pageable page = PageRequest.of(0, CANDIDATES_BATCH_SIZE);
+        return start == null
+                ? itemRepository.searchAfter(text, lastId, page)
+                : itemRepository.searchAvailableAfter(text, start, end, lastId, page);
+    }
+
+    private List<Item> searchAllById(List<Long> ids, String text, LocalDateTime start, LocalDateTime end) {
+        return start == null
+                ? itemRepository.searchAllById(ids, text)
+                : itemRepository.searchAllAvailableById(ids, text, start, end);
+    }
+
+    private List<ItemTextDto> searchTextAllById(List<Long> ids, String text, LocalDateTime start,
+                                                LocalDateTime end) {
+        return start == null
+                ? itemRepository.searchTextAllById(ids, text)
+                : itemRepository.searchTextAllAvailableById(ids, text, start, end);
     }
 
-    private User checkUserExistence(Long userId) {
-        try {
-            User user = userRepository.getReferenceById(userId);
-            System.out.println(user);
-            return user;
+    private List<Item> searchFullText(String text, LocalDateTime start, LocalDateTime end, Pageable page) {
+        return start == null
+                ? itemRepository.searchFullText(text, page)
+                : itemRepository.searchFullTextAvailable(text, start, end, page);
+    }
+
+    private List<ItemTextDto> searchFullTextAfter(String text, LocalDateTime start, LocalDateTime end,
+                                                  long lastId) {
+        return start == null
+                ? itemRepository.searchFullTextAfter(text, lastId, CANDIDATES_BATCH_SIZE)
+                : itemRepository.searchFullTextAvailableAfter(text, start, end, lastId, CANDIDATES_BATCH_SIZE);
+    }
 
-        } catch (EntityNotFoundException e) {
-            throw new UserNotFoundException(userId);
+    private void rank(ItemRanking ranking, List<ItemTextDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Set<Long> itemsId = items.stream()
+                .map(ItemTextDto::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Long> comments = commentRepository.countAllByItemIdIn(itemsId).stream()
+                .collect(Collectors.toMap(ItemCountProjection::getItemId, ItemCountProjection::getCount));
+        Map<Long, Long> bookings = bookingRepository.countAllApprovedByItemIdInAndStartAfter(itemsId,
+                        LocalDateTime.now().minusDays(RECENT_BOOKINGS_DAYS)).stream()
+                .collect(Collectors.toMap(ItemCountProjection::getItemId, ItemCountProjection::getCount));
+        for (ItemTextDto item : items) {
+            ranking.offer(item, comments.getOrDefault(item.getId(), 0L), bookings.getOrDefault(item.getId(), 0L));
         }
+    }
 
+    private List<Long> toIds(long[] candidates, int from) {
+        return Arrays.stream(candidates, from, Math.min(from + CANDIDATES_BATCH_SIZE, candidates.length))
+                .boxed()
+                .collect(Collectors.toList());
     }
 
-    private Item checkItemExistence(Long itemId) {
-        try {
-            Item item = itemRepository.getReferenceById(itemId);
-            System.out.println(item);
-            return item;
-        } catch (EntityNotFoundException e) {
-            throw new ItemNotFoundException(itemId);
+    private void addRequestMatches(Item item) {
+        for (ItemRequestIndex.Match match : requestIndex.findMatches(item.getOwner().getId(), item.getName(),
+                item.getDescription())) {
+            requestRepository.addMatch(match.requestId, item.getId(), match.score);
         }
     }
 
-    private List<ItemToReturnDto> toItemToReturnDtoList(List<Item> items) {
+    private List<ItemToReturnDto> toItemToReturnDtoList(List<Item> items, Fields fields) {
         List<ItemToReturnDto> itemToReturnDtoList = new ArrayList<>();
-        List<Booking> bookings;
-        List<Comment> comments;
+        if (items.isEmpty()) {
+            return itemToReturnDtoList;
+        }
+        long[] itemsId = items.stream().mapToLong(Item::getId).sorted().distinct().toArray();
+        List<Long> itemsIdList = Arrays.stream(itemsId).boxed().collect(Collectors.toList());
+        List<List<BookingForItemDto>> bookingsByItem = newGroups(itemsId.length);
+        if (fields.contains("lastBooking", "nextBooking")) {
+            for (BookingForItemProjection booking : bookingRepository.findLastAndNextBookings(itemsIdList,
+                    LocalDateTime.now())) {
+                bookingsByItem.get(Arrays.binarySearch(itemsId, booking.getItemId()))
+                        .add(bookingMapper.toForItemDto(booking));
+            }
+        }
+        List<List<CommentToReturnDto>> commentsByItem = newGroups(itemsId.length);
+        List<Long> truncatedItemsId = new ArrayList<>();
+        if (fields.contains("comments", "commentCount", "commentsCursor")) {
+            for (CommentForItemProjection comment : commentRepository.findLatestByItemIdIn(itemsIdList,
+                    CommentMapper.LATEST_COMMENTS_SIZE)) {
+                List<CommentToReturnDto> comments = commentsByItem.get(
+                        Arrays.binarySearch(itemsId, comment.getItemId()));
+                comments.add(commentMapper.toReturnDto(comment));
+                if (comments.size() == CommentMapper.LATEST_COMMENTS_SIZE) {
+                    truncatedItemsId.add(comment.getItemId());
+                }
+            }
+        }
+        long[] commentCounts = new long[itemsId.length];
+        if (!truncatedItemsId.isEmpty()) {
+            for (ItemCountProjection count : commentRepository.countAllByItemIdIn(truncatedItemsId)) {
+                commentCounts[Arrays.binarySearch(itemsId, count.getItemId())] = count.getCount();
+            }
+        }
 
         for (Item item : items) {
-            bookings = bookingRepository.findAllByItemId(item.getId());
-            comments = commentRepository.findAllByItemId(item.getId());
+            int index = Arrays.binarySearch(itemsId, item.getId());
+            List<CommentToReturnDto> comments = commentsByItem.get(index);
+            comments.sort(Comparator.comparing(CommentToReturnDto::getCreated,
+                            Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .thenComparing(CommentToReturnDto::getId)
+                    .reversed());
             itemToReturnDtoList.add(itemMapper.toReturnDto(item,
-                    bookingMapper.toForItemDtoList(bookings),
-                    comments));
+                    bookingsByItem.get(index),
+                    comments,
+                    Math.max(commentCounts[index], comments.size())));
         }
         return itemToReturnDtoList;
     }
+
+    private ItemToReturnDto toItemToReturnDto(Item item, List<BookingForItemDto> bookings) {
+        List<Comment> comments = commentRepository.findLatestByItemId(item.getId(),
+                PageRequest.of(0, CommentMapper.LATEST_COMMENTS_SIZE));
+        long commentCount = comments.size() < CommentMapper.LATEST_COMMENTS_SIZE
+                ? comments.size()
+                : commentRepository.countAllByItemId(item.getId());
+        return itemMapper.toReturnDto(item, bookings, commentMapper.toReturnDtoList(comments), commentCount);
+    }
+
+    private <T> List<List<T>> newGroups(int size) {
+        List<List<T>> groups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            groups.add(new ArrayList<>());
+        }
+        return groups;
+    }
 }
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ItemTrigramIndex {
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final long[] NO_TRIGRAMS = new long[0];
+    final Map<Long, PostingList> postingsByTrigram = new HashMap<>();
+    final Map<Long, long[]> trigramsById = new HashMap<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Item item) {
+        long[] trigrams = trigrams(item.getName(), item.getDescription()).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        lock.writeLock().lock();
+        try {
+            long[] oldTrigrams = trigramsById.put(item.getId(), trigrams);
+            if (oldTrigrams == null) {
+                oldTrigrams = NO_TRIGRAMS;
+            } else if (Arrays.equals(oldTrigrams, trigrams)) {
+                return;
+            }
+            for (long trigram : oldTrigrams) {
+                if (Arrays.binarySearch(trigrams, trigram) < 0) {
+                    removePosting(trigram, item.getId());
+                }
+            }
+            for (long trigram : trigrams) {
+                if (Arrays.binarySearch(oldTrigrams, trigram) < 0) {
+                    postingsByTrigram.computeIfAbsent(trigram, key -> new PostingList()).add(item.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] findCandidates(String text) {
+        Set<Long> trigrams = trigrams(text);
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> postings = new ArrayList<>();
+            for (Long trigram : trigrams) {
+                PostingList trigramPostings = postingsByTrigram.get(trigram);
+                if (trigramPostings == null) {
+                    return new long[0];
+                }
+                postings.add(trigramPostings);
+            }
+            postings.sort(Comparator.comparingInt(PostingList::size));
+            long[] candidates = postings.get(0).toArray();
+            for (int i = 1; i < postings.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, postings.get(i).toArray());
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removePosting(long trigram, long itemId) {
+        PostingList postings = postingsByTrigram.get(trigram);
+        if (postings != null) {
+            postings.remove(itemId);
+            if (postings.isEmpty()) {
+                postingsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static Set<Long> trigrams(String... texts) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String upperText = text.toUpperCase(Locale.ROOT);
+            for (int i = 0; i + TRIGRAM_LENGTH <= upperText.length(); i++) {
+                trigrams.add((long) upperText.charAt(i) << 32
+                        | (long) upperText.charAt(i + 1) << 16
+                        | upperText.charAt(i + 2));
+            }
+        }
+        return trigrams;
+    }
+
+    static class PostingList {
+        private byte[] data = new byte[8];
+        private int length;
+        private int size;
+        private long last;
+
+        void add(long id) {
+            if (size == 0 || id > last) {
+                append(id);
+                return;
+            }
+            long[] ids = toArray();
+            int position = Arrays.binarySearch(ids, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            long[] updated = new long[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            updated[position] = id;
+            System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+            rebuild(updated);
+        }
+
+        void remove(long id) {
+            long[] ids = toArray();
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            rebuild(updated);
+        }
+
+        long[] toArray() {
+            long[] ids = new long[size];
+            long id = 0;
+            int offset = 0;
+            for (int i = 0; i < size; i++) {
+                long delta = 0;
+                int shift = 0;
+                byte current;
+                do {
+                    current = data[offset++];
+                    delta |= (long) (current & 0x7F) << shift;
+                    shift += 7;
+                } while (current < 0);
+                id += delta;
+                ids[i] = id;
+            }
+            return ids;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void append(long id) {
+            if (length + 10 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+            }
+            long delta = id - last;
+            while ((delta & ~0x7FL) != 0) {
+                data[length++] = (byte) (delta & 0x7F | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+            size++;
+        }
+
+        private void rebuild(long[] ids) {
+            data = new byte[Math.max(8, ids.length * 2)];
+            length = 0;
+            size = 0;
+            last = 0;
+            for (long id : ids) {
+                append(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.lookup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.NoPermissionException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.JpaUserRepository;
+import ru.practicum.shareit.user.service.UserIdFilter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class EntityLookupService {
+    static final String CONTEXT_ATTRIBUTE = EntityLookupService.class.getName() + ".CONTEXT";
+    final JpaUserRepository userRepository;
+    final JpaItemRepository itemRepository;
+    final UserIdFilter userIdFilter;
+
+    public void queueUsers(Collection<Long> usersId) {
+        getContext().users.queue(usersId);
+    }
+
+    public void queueItems(Collection<Long> itemsId) {
+        getContext().items.queue(itemsId);
+    }
+
+    public User getUser(Long userId) {
+        if (!userIdFilter.mightContain(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        User user = getContext().users.load(userId, userRepository::findAllById, User::getId);
+        if (user == null) {
+            throw new UserNotFoundException(userId);
+        }
+        userIdFilter.add(userId);
+        return user;
+    }
+
+    public Item getItem(Long itemId) {
+        Item item = getContext().items.load(itemId, itemRepository::findAllById, Item::getId);
+        if (item == null) {
+            throw new ItemNotFoundException(itemId);
+        }
+        return item;
+    }
+
+    public Item getOwnedItem(Long itemId, Long userId) {
+        Item item = getItem(itemId);
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new NoPermissionException(userId);
+        }
+        return item;
+    }
+
+    private Context getContext() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new Context();
+        }
+        Context context = (Context) attributes.getAttribute(CONTEXT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (context == null) {
+            context = new Context();
+            attributes.setAttribute(CONTEXT_ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+        }
+        return context;
+    }
+
+    static class Context {
+        final Loader<User> users = new Loader<>();
+        final Loader<Item> items = new Loader<>();
+    }
+
+    static class Loader<T> {
+        final Map<Long, T> loaded = new HashMap<>();
+        final Set<Long> pending = new LinkedHashSet<>();
+
+        synchronized void queue(Collection<Long> ids) {
+            for (Long id : ids) {
+                if (!loaded.containsKey(id)) {
+                    pending.add(id);
+                }
+            }
+        }
+
+        synchronized T load(Long id, Function<Set<Long>, List<T>> finder, Function<T, Long> idGetter) {
+            if (loaded.containsKey(id)) {
+                return loaded.get(id);
+            }
+            pending.add(id);
+            Set<Long> ids = new LinkedHashSet<>(pending);
+            pending.clear();
+            for (Long pendingId : ids) {
+                loaded.put(pendingId, null);
+            }
+            for (T entity : finder.apply(ids)) {
+                loaded.put(idGetter.apply(entity), entity);
+            }
+            return loaded.get(id);
+        }
+    }
+}
@@ -2,9 +2,11 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Create;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -16,6 +18,8 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 public class ItemRequestController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_UNPAGED_SIZE = 1000;
 
     @Qualifier("itemRequestServiceImpl")
     final ItemRequestService requestService;
@@ -28,15 +32,27 @@ public class ItemRequestController {
     }
 
     @GetMapping()
-    public List<ItemRequestToReturnDto> get(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getByOwner(userId);
+    public ResponseEntity<List<ItemRequestToReturnDto>> get(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            return withNextCursor(requestService.getByOwner(userId, KeysetCursor.FIRST, MAX_UNPAGED_SIZE),
+                    MAX_UNPAGED_SIZE);
+        }
+        return withNextCursor(requestService.getByOwner(userId, KeysetCursor.decode(cursor), size), size);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestToReturnDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                               @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return requestService.getAll(userId, from, size);
+    public ResponseEntity<List<ItemRequestToReturnDto>> getAll(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(requestService.getAll(userId, from, size));
+        }
+        return withNextCursor(requestService.getAll(userId, KeysetCursor.decode(cursor), size), size);
     }
 
     @GetMapping("/{requestId}")
@@ -45,4 +61,13 @@ public class ItemRequestController {
         return requestService.getById(requestId, userId);
     }
 
+    private ResponseEntity<List<ItemRequestToReturnDto>> withNextCursor(List<ItemRequestToReturnDto> requests,
+                                                                        Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (requests.size() == size) {
+            ItemRequestToReturnDto last = requests.get(requests.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(requests);
+    }
 }
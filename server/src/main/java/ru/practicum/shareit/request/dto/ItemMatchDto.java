@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemMatchDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Double score;
+}
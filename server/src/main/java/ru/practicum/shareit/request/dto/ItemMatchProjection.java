@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.dto;
+
+public interface ItemMatchProjection {
+    Long getRequestId();
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Double getScore();
+}
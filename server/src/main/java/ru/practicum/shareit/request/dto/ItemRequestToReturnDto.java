@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +19,6 @@ public class ItemRequestToReturnDto {
     private String description;
     private LocalDateTime created;
     private List<ItemForRequestDto> items;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ItemMatchDto> matches;
 }
@@ -21,7 +21,7 @@ public class ItemRequest {
     private  Long id;
     @Column
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id")
     private User requester;
     private LocalDateTime created;
@@ -2,12 +2,51 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemMatchProjection;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface JpaItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r from ItemRequest r where r.requester.id <> :id order by r.created desc, r.id desc")
     List<ItemRequest> findAllByRequesterIdIsNotOrderByCreatedDesc(Long id, Pageable pageable);
 
-    List<ItemRequest> findAllByRequesterId(Long id);
+    @Query("select r from ItemRequest r where r.requester.id <> :id " +
+            "and (r.created < :created or (r.created = :created and r.id < :requestId)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdIsNotBefore(Long id, LocalDateTime created, Long requestId,
+                                                      Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.requester.id = :id " +
+            "and (r.created < :created or (r.created = :created and r.id < :requestId)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdBefore(Long id, LocalDateTime created, Long requestId, Pageable pageable);
+
+    @Query("select r from ItemRequest r order by r.created desc, r.id desc")
+    List<ItemRequest> findLatest(Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.created >= :created " +
+            "and (r.created > :created or r.id > :id) " +
+            "order by r.created, r.id")
+    List<ItemRequest> findAllCreatedAfter(LocalDateTime created, Long id, Pageable page);
+
+    @Modifying
+    @Query(value = "insert into request_matches (request_id, item_id, score) " +
+            "select r.id, :itemId, :score from requests r where r.id = :requestId", nativeQuery = true)
+    int addMatch(Long requestId, Long itemId, double score);
+
+    @Query(value = "select requestId, id, name, description, available, score " +
+            "from (select m.request_id as requestId, i.id as id, i.name as name, i.description as description, " +
+            "i.is_available as available, m.score as score, " +
+            "row_number() over (partition by m.request_id order by m.score desc, i.id) as rn " +
+            "from request_matches m " +
+            "join items i on i.id = m.item_id " +
+            "where m.request_id in (:requestsId)) as ranked_matches " +
+            "where rn <= :size " +
+            "order by requestId, score desc, id", nativeQuery = true)
+    List<ItemMatchProjection> findAllMatchesByRequestIdIn(Collection<Long> requestsId, Integer size);
 }
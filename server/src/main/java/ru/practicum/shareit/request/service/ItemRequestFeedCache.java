@@ -0,0 +1,77 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.CacheGeneration;
+import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
+
+import java.util.Collections;
+import java.util.List;
+
+@Component
+public class ItemRequestFeedCache {
+    static final int SEGMENT_SIZE = 200;
+    static final long TTL_MILLIS = 60_000;
+    final CacheGeneration generation = new CacheGeneration();
+    final Counter hits;
+    final Counter misses;
+    private Segment segment;
+
+    public ItemRequestFeedCache(MeterRegistry meterRegistry) {
+        hits = meterRegistry.counter("request.feed.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("request.feed.cache.requests", "result", "miss");
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void invalidate() {
+        generation.invalidate();
+    }
+
+    public synchronized Segment get() {
+        if (segment == null || segment.generation != generation.get()
+                || segment.expiresAt < System.currentTimeMillis()) {
+            segment = null;
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return segment;
+    }
+
+    public synchronized Segment put(long generation, List<Entry> entries) {
+        Segment loaded = new Segment(Collections.unmodifiableList(entries), entries.size() < SEGMENT_SIZE,
+                generation, System.currentTimeMillis() + TTL_MILLIS);
+        if (generation == this.generation.get()) {
+            segment = loaded;
+        }
+        return loaded;
+    }
+
+    public static class Segment {
+        final List<Entry> entries;
+        final boolean complete;
+        final long generation;
+        final long expiresAt;
+
+        Segment(List<Entry> entries, boolean complete, long generation, long expiresAt) {
+            this.entries = entries;
+            this.complete = complete;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class Entry {
+        final Long requesterId;
+        final ItemRequestToReturnDto request;
+
+        public Entry(Long requesterId, ItemRequestToReturnDto request) {
+            this.requesterId = requesterId;
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class ItemRequestIndex {
+    static final int MAX_MATCHES = 20;
+    private static final int MIN_TOKEN_LENGTH = 4;
+    private static final int STEM_LENGTH = 4;
+    private static final int MIN_SHARED_TOKENS = 2;
+    private static final double MIN_SCORE = 0.5;
+    private static final Set<String> STOPWORDS = Set.of(
+            "нужен", "нужна", "нужно", "нужны", "ищем", "хочу", "хотим", "прошу", "пожалуйста", "срочно",
+            "очень", "можно", "будет", "есть", "чтобы", "который", "которая", "которое", "которые",
+            "need", "needs", "want", "wanted", "looking", "please", "with", "this", "that", "some", "have");
+    final Map<String, Set<Long>> requestsByToken = new HashMap<>();
+    final Map<Long, Entry> entriesById = new HashMap<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(ItemRequest request) {
+        Set<String> tokens = tokens(request.getDescription());
+        if (tokens.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (entriesById.containsKey(request.getId())) {
+                return;
+            }
+            entriesById.put(request.getId(), new Entry(request.getRequester().getId(), tokens.size()));
+            for (String token : tokens) {
+                requestsByToken.computeIfAbsent(token, key -> new HashSet<>()).add(request.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Match> findMatches(Long ownerId, String... texts) {
+        Set<String> tokens = tokens(texts);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Integer> sharedTokens = new HashMap<>();
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Set<Long> requestsId = requestsByToken.get(token);
+                if (requestsId != null) {
+                    requestsId.forEach(requestId -> sharedTokens.merge(requestId, 1, Integer::sum));
+                }
+            }
+            for (Map.Entry<Long, Integer> shared : sharedTokens.entrySet()) {
+                Entry entry = entriesById.get(shared.getKey());
+                double score = (double) shared.getValue() / entry.tokenCount;
+                if (!entry.requesterId.equals(ownerId)
+                        && (shared.getValue() >= MIN_SHARED_TOKENS || score >= MIN_SCORE)) {
+                    matches.add(new Match(shared.getKey(), score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble((Match match) -> match.score).reversed()
+                .thenComparing(match -> match.requestId));
+        return matches.size() > MAX_MATCHES ? new ArrayList<>(matches.subList(0, MAX_MATCHES)) : matches;
+    }
+
+    static Set<String> tokens(String... texts) {
+        Set<String> tokens = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() >= MIN_TOKEN_LENGTH && !STOPWORDS.contains(word)) {
+                    tokens.add(word.substring(0, STEM_LENGTH));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    public static class Match {
+        public final Long requestId;
+        public final double score;
+
+        public Match(Long requestId, double score) {
+            this.requestId = requestId;
+            this.score = score;
+        }
+    }
+
+    static class Entry {
+        final Long requesterId;
+        final int tokenCount;
+
+        Entry(Long requesterId, int tokenCount) {
+            this.requesterId = requesterId;
+            this.tokenCount = tokenCount;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
 
@@ -9,10 +10,12 @@ public interface ItemRequestService {
 
     ItemRequestToReturnDto getById(Long requestId, Long userId);
 
-    List<ItemRequestToReturnDto> getByOwner(Long userId);
+    List<ItemRequestToReturnDto> getByOwner(Long userId, KeysetCursor cursor, Integer size);
 
     List<ItemRequestToReturnDto> getAll(Long userId, Integer from, Integer size);
 
+    List<ItemRequestToReturnDto> getAll(Long userId, KeysetCursor cursor, Integer size);
+
     ItemRequestToReturnDto add(ItemRequestToGetDto itemRequestToGetDto, Long userId);
 
 }
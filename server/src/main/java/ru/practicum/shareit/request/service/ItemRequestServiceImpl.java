@@ -4,23 +4,26 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemForRequestDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.request.dto.ItemMatchDto;
+import ru.practicum.shareit.request.dto.ItemMatchProjection;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,15 +31,18 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    static final int MAX_MATCHES = 20;
     final ItemRequestMapper requestMapper;
     final JpaItemRequestRepository requestRepository;
     final JpaItemRepository itemRepository;
-    final JpaUserRepository userRepository;
     final ItemMapper itemMapper;
+    final ItemRequestFeedCache feedCache;
+    final ItemRequestIndex requestIndex;
+    final EntityLookupService entityLookup;
 
     @Override
     public ItemRequestToReturnDto getById(Long requestId, Long userId) {
-        checkUserExistence(userId);
+        entityLookup.getUser(userId);
         ItemRequest request = checkRequestExistence(requestId);
         List<ItemForRequestDto> items = itemMapper.toForRequestDtoList(
                 itemRepository.findAllByRequestId(requestId));
@@ -45,45 +51,94 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestToReturnDto add(ItemRequestToGetDto newRequestDto, Long userId) {
-        User user = checkUserExistence(userId);
+        User user = entityLookup.getUser(userId);
         ItemRequest request = requestMapper.toEntity(newRequestDto, user);
         request.setCreated(LocalDateTime.now());
-        return requestMapper.toReturnDto(requestRepository.save(request), new ArrayList<>());
+        ItemRequest savedRequest = requestRepository.save(request);
+        requestIndex.add(savedRequest);
+        feedCache.invalidate();
+        return requestMapper.toReturnDto(savedRequest, new ArrayList<>());
     }
 
     @Override
-    public List<ItemRequestToReturnDto> getByOwner(Long userId) {
-        checkUserExistence(userId);
-        List<ItemRequest> requests = requestRepository.findAllByRequesterId(userId);
-        return toReturnDtoList(requests);
+    public List<ItemRequestToReturnDto> getByOwner(Long userId, KeysetCursor cursor, Integer size) {
+        entityLookup.getUser(userId);
+        List<ItemRequest> requests = requestRepository.findAllByRequesterIdBefore(userId, cursor.getTimestamp(),
+                cursor.getId(), PageRequest.of(0, size));
+        return withMatches(toReturnDtoList(requests));
     }
 
     @Override
     public List<ItemRequestToReturnDto> getAll(Long userId, Integer from, Integer size) {
-        checkUserExistence(userId);
+        if (from == 0) {
+            return getAll(userId, KeysetCursor.FIRST, size);
+        }
+        entityLookup.getUser(userId);
         Pageable page = PageRequest.of(from / size, size);
         List<ItemRequest> requests = requestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(userId, page);
         return toReturnDtoList(requests);
     }
 
-    private User checkUserExistence(Long userId) {
-        try {
-            User user = userRepository.getReferenceById(userId);
-            System.out.println(user);
-            return user;
-        } catch (EntityNotFoundException e) {
-            throw new UserNotFoundException(userId);
+    @Override
+    public List<ItemRequestToReturnDto> getAll(Long userId, KeysetCursor cursor, Integer size) {
+        entityLookup.getUser(userId);
+        ItemRequestFeedCache.Segment segment = getFeedSegment();
+        List<ItemRequestToReturnDto> result = new ArrayList<>();
+        for (ItemRequestFeedCache.Entry entry : segment.entries) {
+            if (result.size() == size) {
+                return result;
+            }
+            if (!entry.requesterId.equals(userId) && cursor.isAfter(entry.request.getCreated(), entry.request.getId())) {
+                result.add(entry.request);
+            }
+        }
+        if (result.size() == size || segment.complete) {
+            return result;
+        }
+        ItemRequestToReturnDto last = segment.entries.get(segment.entries.size() - 1).request;
+        KeysetCursor next = cursor.isAfter(last.getCreated(), last.getId())
+                ? new KeysetCursor(last.getCreated(), last.getId()) : cursor;
+        result.addAll(toReturnDtoList(requestRepository.findAllByRequesterIdIsNotBefore(userId, next.getTimestamp(),
+                next.getId(), PageRequest.of(0, size - result.size()))));
+        return result;
+    }
+
+    private ItemRequestFeedCache.Segment getFeedSegment() {
+        ItemRequestFeedCache.Segment segment = feedCache.get();
+        if (segment != null) {
+            return segment;
+        }
+        long generation = feedCache.getGeneration();
+        List<ItemRequest> requests = requestRepository.findLatest(
+                PageRequest.of(0, ItemRequestFeedCache.SEGMENT_SIZE));
+        List<ItemRequestToReturnDto> requestsDto = toReturnDtoList(requests);
+        List<ItemRequestFeedCache.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            entries.add(new ItemRequestFeedCache.Entry(requests.get(i).getRequester().getId(), requestsDto.get(i)));
         }
+        return feedCache.put(generation, entries);
     }
 
     private ItemRequest checkRequestExistence(Long requestId) {
-        try {
-            ItemRequest request = requestRepository.getReferenceById(requestId);
-            System.out.println(request);
-            return request;
-        } catch (EntityNotFoundException e) {
-            throw new ItemRequestNotFoundException(requestId);
+        return requestRepository.findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException(requestId));
+    }
+
+    private List<ItemRequestToReturnDto> withMatches(List<ItemRequestToReturnDto> requests) {
+        Map<Long, List<ItemMatchDto>> matchesMap = new HashMap<>();
+        for (ItemRequestToReturnDto request : requests) {
+            request.setMatches(new ArrayList<>());
+            matchesMap.put(request.getId(), request.getMatches());
+        }
+        if (matchesMap.isEmpty()) {
+            return requests;
+        }
+        for (ItemMatchProjection match : requestRepository.findAllMatchesByRequestIdIn(matchesMap.keySet(),
+                MAX_MATCHES)) {
+            matchesMap.get(match.getRequestId()).add(new ItemMatchDto(match.getId(), match.getName(),
+                    match.getDescription(), match.getAvailable(), match.getScore()));
         }
+        return requests;
     }
 
     private List<ItemRequestToReturnDto> toReturnDtoList(List<ItemRequest> requests) {
@@ -1,16 +1,24 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Create;
+import ru.practicum.shareit.Ndjson;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.exception.InvalidIdException;
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,12 +26,35 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 public class UserController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Qualifier("userServiceImpl")
     final UserService userService;
+    final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<UserToReturnDto> getAll() {
-        return userService.getAll();
+    public ResponseEntity<List<UserToReturnDto>> getAll(
+            @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(userService.getAll());
+        }
+        List<UserToReturnDto> users = userService.getAll(UserCursor.decode(cursor), size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, UserCursor.of(users.get(users.size() - 1)).encode());
+        }
+        return response.body(users);
+    }
+
+    @GetMapping(produces = Ndjson.MEDIA_TYPE)
+    public void streamAll(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Ndjson.write(request, response, objectMapper, userService::streamAll);
+    }
+
+    @GetMapping("/ids")
+    public UserIdSnapshotDto getIdSnapshot() {
+        return userService.getIdSnapshot();
     }
 
     @GetMapping("/{userId}")
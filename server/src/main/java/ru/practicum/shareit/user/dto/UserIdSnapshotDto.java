@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserIdSnapshotDto {
+    private Long stableId;
+    private byte[] bitmap;
+}
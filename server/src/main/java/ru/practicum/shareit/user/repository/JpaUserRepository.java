@@ -1,8 +1,25 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface JpaUserRepository extends JpaRepository<User, Long> {
+    @Query("select u from User u where u.id > :id order by u.id")
+    List<User> findAllAfter(Long id, Pageable page);
+
+    @Query("select u.id from User u where u.id > :id order by u.id")
+    List<Long> findAllIdsAfter(Long id, Pageable page);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.dto.UserToReturnDto(u.id, u.name, u.email) " +
+            "from User u order by u.id")
+    Stream<UserToReturnDto> streamAll();
 }
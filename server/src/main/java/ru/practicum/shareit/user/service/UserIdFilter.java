@@ -0,0 +1,122 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
+import ru.practicum.shareit.user.repository.JpaUserRepository;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class UserIdFilter {
+    private static final int BATCH_SIZE = 10_000;
+    final JpaUserRepository userRepository;
+    final long settleMillis;
+    final BitSet ids = new BitSet();
+    final Counter rejections;
+    final Counter refreshes;
+    final Lock refreshLock = new ReentrantLock();
+    private long stableId;
+    private long pendingId;
+    private long pendingSince;
+
+    public UserIdFilter(JpaUserRepository userRepository, MeterRegistry meterRegistry,
+                        @Value("${shareit.user-filter.settle-millis:300000}") long settleMillis) {
+        this.userRepository = userRepository;
+        this.settleMillis = settleMillis;
+        rejections = meterRegistry.counter("user.id.filter.rejections");
+        refreshes = meterRegistry.counter("user.id.filter.refreshes");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user-filter.refresh-millis:5000}",
+            initialDelayString = "${shareit.user-filter.refresh-millis:5000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            refreshes.increment();
+            long startedAt = System.currentTimeMillis();
+            long lastId = getStableId();
+            List<Long> usersId;
+            do {
+                usersId = userRepository.findAllIdsAfter(lastId, PageRequest.of(0, BATCH_SIZE));
+                for (Long userId : usersId) {
+                    add(userId);
+                    lastId = userId;
+                }
+            } while (usersId.size() == BATCH_SIZE);
+            if (pendingId > 0 && startedAt - pendingSince >= settleMillis) {
+                setStableId(pendingId);
+                pendingId = 0;
+            }
+            if (pendingId == 0 && lastId > getStableId()) {
+                pendingId = lastId;
+                pendingSince = System.currentTimeMillis();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public synchronized void add(Long userId) {
+        if (userId > 0 && userId <= Integer.MAX_VALUE) {
+            ids.set(userId.intValue());
+        }
+    }
+
+    public void remove(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear(userId);
+                }
+            });
+        } else {
+            clear(userId);
+        }
+    }
+
+    public boolean mightContain(Long userId) {
+        synchronized (this) {
+            if (userId > 0 && (userId > stableId || ids.get(userId.intValue()))) {
+                return true;
+            }
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public synchronized UserIdSnapshotDto snapshot() {
+        return new UserIdSnapshotDto(stableId, ids.toByteArray());
+    }
+
+    private synchronized void clear(Long userId) {
+        if (userId > 0 && userId <= Integer.MAX_VALUE) {
+            ids.clear(userId.intValue());
+        }
+    }
+
+    private synchronized long getStableId() {
+        return stableId;
+    }
+
+    private synchronized void setStableId(long stableId) {
+        this.stableId = Math.max(this.stableId, Math.min(stableId, Integer.MAX_VALUE));
+    }
+}
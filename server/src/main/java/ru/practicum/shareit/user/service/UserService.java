@@ -1,15 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserToReturnDto getById(Long userId);
 
     List<UserToReturnDto> getAll();
 
+    List<UserToReturnDto> getAll(UserCursor cursor, Integer size);
+
+    void streamAll(Consumer<UserToReturnDto> consumer);
+
+    UserIdSnapshotDto getIdSnapshot();
+
     UserToReturnDto add(UserToGetDto userToGetDto);
 
     UserToReturnDto update(UserToGetDto userToGetDto, Long userId);
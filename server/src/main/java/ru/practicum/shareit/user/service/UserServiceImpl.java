@@ -2,27 +2,34 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.EmailAlreadyExistException;
-import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     final JpaUserRepository userRepository;
     final UserMapper userMapper;
+    final EntityLookupService entityLookup;
+    final UserIdFilter userIdFilter;
 
     @Override
     public UserToReturnDto getById(Long userId) {
-        return userMapper.toReturnDto(checkUserExistence(userId));
+        return userMapper.toReturnDto(entityLookup.getUser(userId));
     }
 
     @Override
@@ -30,23 +37,45 @@ public class UserServiceImpl implements UserService {
         return userMapper.toReturnDtoList(userRepository.findAll());
     }
 
+    @Override
+    public List<UserToReturnDto> getAll(UserCursor cursor, Integer size) {
+        return userMapper.toReturnDtoList(userRepository.findAllAfter(cursor.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserToReturnDto> consumer) {
+        try (Stream<UserToReturnDto> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
+    }
+
     @Override
     public UserToReturnDto add(UserToGetDto user) {
+        User savedUser;
         try {
-            return userMapper.toReturnDto(userRepository.save(userMapper.toEntity(user)));
+            savedUser = userRepository.save(userMapper.toEntity(user));
         } catch (DataIntegrityViolationException e) {
             throw new EmailAlreadyExistException(user.getEmail());
         }
+        userIdFilter.add(savedUser.getId());
+        return userMapper.toReturnDto(savedUser);
     }
 
     @Override
     public void delete(Long userId) {
         userRepository.deleteById(userId);
+        userIdFilter.remove(userId);
+    }
+
+    @Override
+    public UserIdSnapshotDto getIdSnapshot() {
+        return userIdFilter.snapshot();
     }
 
     @Override
     public UserToReturnDto update(UserToGetDto newUser, Long userId) {
-        User oldUser = checkUserExistence(newUser.getId());
+        User oldUser = entityLookup.getUser(newUser.getId());
         if (newUser.getName() != null) {
             oldUser.setName(newUser.getName());
         }
@@ -56,13 +85,4 @@ public class UserServiceImpl implements UserService {
         return userMapper.toReturnDto(userRepository.save(oldUser));
     }
 
-    private User checkUserExistence(Long userId) {
-        try {
-            User user = userRepository.getReferenceById(userId);
-            System.out.println(user);
-            return user;
-        } catch (EntityNotFoundException e) {
-            throw new UserNotFoundException(userId);
-        }
-    }
 }
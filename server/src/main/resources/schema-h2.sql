@@ -0,0 +1,4 @@
+create alias if not exists ft_init for 'org.h2.fulltext.FullText.init';
+call ft_init();
+call ft_drop_index('PUBLIC', 'ITEMS');
+call ft_create_index('PUBLIC', 'ITEMS', 'NAME,DESCRIPTION');
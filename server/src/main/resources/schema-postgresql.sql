@@ -0,0 +1,13 @@
+create index if not exists ix_booking_booker_waiting on bookings (booker_id, start_date desc, id desc)
+    where status = 'WAITING';
+create index if not exists ix_booking_booker_rejected on bookings (booker_id, start_date desc, id desc)
+    where status = 'REJECTED';
+create index if not exists ix_booking_item_waiting on bookings (item_id, start_date desc, id desc)
+    where status = 'WAITING';
+create index if not exists ix_booking_item_rejected on bookings (item_id, start_date desc, id desc)
+    where status = 'REJECTED';
+alter table items add column if not exists search_vector tsvector
+    generated always as (to_tsvector('simple', name || ' ' || description)) stored;
+create index if not exists ix_item_search_vector on items using gin (search_vector);
+create index if not exists ix_booking_item_approved on bookings (item_id, start_date, end_date)
+    where status = 'APPROVED';
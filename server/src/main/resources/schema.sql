@@ -1,4 +1,4 @@
-drop table if exists users, requests, items, bookings, comments;
+drop table if exists users, requests, items, bookings, comments, request_matches;
 
 create table if not exists users
 (
@@ -27,6 +27,7 @@ create table if not exists items
     is_available boolean                                 not null,
     owner_id     bigint                                  not null,
     request_id   bigint,
+    updated      timestamp without time zone default current_timestamp not null,
     constraint pk_item primary key (id),
     constraint fk_item_owner_id foreign key (owner_id) references users (id),
     constraint fk_item_request_id foreign key (request_id) references requests (id)
@@ -40,6 +41,7 @@ create table if not exists bookings
     status     varchar(20) default 'WAITING',
     item_id    bigint                                  not null,
     booker_id  bigint                                  not null,
+    version    bigint      default 0                   not null,
     constraint pk_booking primary key (id),
     constraint fk_booking_item_id foreign key (item_id) references items (id),
     constraint fk_booking_booker_id foreign key (booker_id) references users (id)
@@ -56,4 +58,28 @@ create table if not exists comments
     constraint pk_comment primary key (id),
     constraint fk_comment_item_id foreign key (item_id) references items (id),
     constraint fk_comment_author_id foreign key (author_id) references users (id)
-)
\ No newline at end of file
+);
+
+create table if not exists request_matches
+(
+    request_id bigint           not null,
+    item_id    bigint           not null,
+    score      double precision not null,
+    constraint pk_request_match primary key (request_id, item_id),
+    constraint fk_request_match_request_id foreign key (request_id) references requests (id),
+    constraint fk_request_match_item_id foreign key (item_id) references items (id)
+);
+
+create index if not exists ix_request_requester_id on requests (requester_id, created desc, id desc);
+create index if not exists ix_request_created on requests (created desc, id desc);
+create index if not exists ix_request_match_item_id on request_matches (item_id);
+
+create index if not exists ix_item_owner_id on items (owner_id, id);
+create index if not exists ix_item_request_id on items (request_id);
+create index if not exists ix_item_updated on items (updated, id);
+
+create index if not exists ix_booking_booker_id on bookings (booker_id, start_date desc, id desc);
+create index if not exists ix_booking_item_id on bookings (item_id, status, start_date);
+create index if not exists ix_booking_item_period on bookings (item_id, start_date, end_date);
+
+create index if not exists ix_comment_item_id on comments (item_id, created desc, id desc);
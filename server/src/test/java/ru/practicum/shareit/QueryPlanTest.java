@@ -0,0 +1,234 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.BookingIntervalProjection;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.JpaBookingRepository;
+import ru.practicum.shareit.comment.repository.JpaCommentRepository;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
+import ru.practicum.shareit.user.repository.JpaUserRepository;
+import ru.practicum.shareit.utils.SqlCaptor;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.utils.SqlCaptor")
+@TestPropertySource(locations = "classpath:application-test.yml")
+class QueryPlanTest {
+    private static final int USERS = 100;
+    private static final int REQUESTS = 300;
+    private static final int ITEMS = 1000;
+    private static final int BOOKINGS = 5000;
+    private static final int COMMENTS = 2000;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private JpaBookingRepository bookingRepository;
+    @Autowired private JpaItemRepository itemRepository;
+    @Autowired private JpaCommentRepository commentRepository;
+    @Autowired private JpaItemRequestRepository requestRepository;
+    @Autowired private JpaUserRepository userRepository;
+
+    private final Pageable page = PageRequest.of(0, 10);
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "user" + i, "user" + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int i = 1; i <= REQUESTS; i++) {
+            requests.add(new Object[]{i, "request" + i, i % USERS + 1, Timestamp.valueOf(now.minusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requester_id, created) " +
+                "values (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{i, "item" + i, "descr" + i, true, i % USERS + 1,
+                    i % 3 == 0 ? i % REQUESTS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", items);
+
+        Status[] statuses = Status.values();
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = now.plusDays(i % 60 - 30);
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)),
+                    statuses[i % statuses.length].name(), i % ITEMS + 1, (i * 7) % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, status, item_id, booker_id) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 1; i <= COMMENTS; i++) {
+            comments.add(new Object[]{i, Timestamp.valueOf(now.minusDays(i % 30)), "comment" + i,
+                    i % USERS + 1, i % ITEMS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into comments (id, created, text, author_id, item_id) " +
+                "values (?, ?, ?, ?, ?)", comments);
+    }
+
+    @Test
+    void bookingRepository_shouldUseIndexes() {
+        assertIndexed(() -> bookingRepository.findAllByItemId(1L));
+        assertIndexed(() -> bookingRepository.findAllByItemIdIn(Set.of(1L, 2L, 3L)));
+        assertIndexed(() -> bookingRepository.findLastAndNextBookings(Set.of(1L, 2L, 3L), now));
+        assertIndexed(() -> bookingRepository.findAllSuccessfulBookings(1L, 1L));
+        assertIndexed(() -> bookingRepository.findAllItemApprovedBookings(1L));
+        assertIndexed(() -> bookingRepository.existsApprovedOverlap(1L, 0L, now, now.plusDays(1)));
+        assertIndexed(() -> bookingRepository.updateStatus(1L, 1L, Status.APPROVED));
+        assertIndexed(() -> bookingRepository.countAllApprovedByItemIdInAndStartAfter(Set.of(1L, 2L, 3L), now));
+        assertIndexed(() -> bookingRepository.lockAllOwnerBookings(Set.of(1L, 2L, 3L), 2L));
+        assertIndexed(() -> bookingRepository.findAllApprovedOverlaps(Set.of(1L, 2L, 3L), now, now.plusDays(1)));
+        assertIndexed(() -> {
+            try (Stream<BookingIntervalProjection> intervals =
+                         bookingRepository.streamActiveIntervals(1L, now, now.plusDays(30))) {
+                intervals.count();
+            }
+        });
+        assertIndexed(() -> bookingRepository.updateAllStatuses(Set.of(1L, 2L, 3L), 2L, Status.APPROVED));
+
+        assertIndexed(() -> bookingRepository.findAllUserItemsCurrentBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsPastBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsFutureBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsWaitingBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsRejectedBookings(1L, page));
+
+        assertIndexed(() -> bookingRepository.findAllUserCurrentBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserPastBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserFutureBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserWaitingBookings(1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserRejectedBookings(1L, page));
+
+        assertIndexed(() -> bookingRepository.findAllUserItemsCurrentBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsPastBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsFutureBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsWaitingBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserItemsRejectedBookingsAfter(1L, now, 1L, page));
+
+        assertIndexed(() -> bookingRepository.findAllUserCurrentBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserPastBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserFutureBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserWaitingBookingsAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllUserRejectedBookingsAfter(1L, now, 1L, page));
+    }
+
+    @Test
+    void itemRepository_shouldUseIndexes() {
+        assertIndexed(() -> itemRepository.findAllByOwnerIdOrderById(1L, page));
+        assertIndexed(() -> itemRepository.findAllByRequestIdIn(Set.of(1L, 2L, 3L)));
+        assertIndexed(() -> itemRepository.findAllByRequestId(1L));
+        assertIndexed(() -> itemRepository.lockById(1L));
+        assertIndexed(() -> itemRepository.lockAllById(Set.of(1L, 2L, 3L)));
+        assertIndexed(() -> itemRepository.searchFullText("item1", page));
+        assertIndexed(() -> itemRepository.searchAllById(List.of(1L, 2L, 3L), "item"));
+        assertIndexed(() -> itemRepository.searchFullTextAvailable("item1", now, now.plusDays(1), page));
+        assertIndexed(() -> itemRepository.searchAllAvailableById(List.of(1L, 2L, 3L), "item", now, now.plusDays(1)));
+        assertIndexed(() -> itemRepository.searchFullTextAfter("item1", 500L, 10));
+        assertIndexed(() -> itemRepository.searchFullTextAvailableAfter("item1", now, now.plusDays(1), 500L, 10));
+        assertIndexed(() -> itemRepository.findAllUpdatedAfter(now.minusMinutes(5), 500L, page));
+    }
+
+    @Test
+    void commentRepository_shouldUseIndexes() {
+        assertIndexed(() -> commentRepository.findAllByItemId(1L));
+        assertIndexed(() -> commentRepository.findAllByItemIdIn(Set.of(1L, 2L, 3L)));
+        assertIndexed(() -> commentRepository.countAllByItemIdIn(Set.of(1L, 2L, 3L)));
+        assertIndexed(() -> commentRepository.countAllByItemId(1L));
+        assertIndexed(() -> commentRepository.findLatestByItemId(1L, page));
+        assertIndexed(() -> commentRepository.findAllByItemIdBefore(1L, now, 10L, page));
+        assertIndexed(() -> commentRepository.findLatestByItemIdIn(Set.of(1L, 2L, 3L), 10));
+    }
+
+    @Test
+    void requestRepository_shouldUseIndexes() {
+        assertIndexed(() -> requestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(1L, page));
+        assertIndexed(() -> requestRepository.findAllByRequesterIdBefore(1L, now, 10L, page));
+        assertIndexed(() -> requestRepository.findLatest(page));
+        assertIndexed(() -> requestRepository.findAllCreatedAfter(now.minusHours(5), 1L, page));
+        assertIndexed(() -> requestRepository.findAllMatchesByRequestIdIn(Set.of(1L, 2L, 3L), 10));
+    }
+
+    @Test
+    void userRepository_shouldUseIndexes() {
+        assertIndexed(() -> userRepository.findAllAfter(1L, page));
+    }
+
+    @Test
+    void bookingLists_shouldBeLoadedInSingleStatement() {
+        assertSingleStatement(() -> bookingRepository.findAllByItemIdIn(Set.of(1L, 2L, 3L))
+                .forEach(this::readBooking));
+        assertSingleStatement(() -> bookingRepository.findAllUserBookings(8L, page)
+                .forEach(this::readBooking));
+        assertSingleStatement(() -> bookingRepository.findAllUserWaitingBookingsAfter(8L, now.plusYears(1), 1L, page)
+                .forEach(this::readBooking));
+        assertSingleStatement(() -> bookingRepository.findAllUserItemsBookings(2L, page)
+                .forEach(this::readBooking));
+        assertSingleStatement(() -> bookingRepository.findAllUserItemsPastBookingsAfter(2L, now, 1L, page)
+                .forEach(this::readBooking));
+    }
+
+    @Test
+    void commentLists_shouldBeLoadedInSingleStatement() {
+        assertSingleStatement(() -> commentRepository.findAllByItemIdIn(Set.of(1L, 2L, 3L))
+                .forEach(comment -> comment.getAuthor().getName()));
+    }
+
+    @Test
+    void itemAndRequestLists_shouldBeLoadedInSingleStatement() {
+        assertSingleStatement(() -> itemRepository.findAllByOwnerIdOrderById(2L, page)
+                .forEach(item -> item.getOwner().getId()));
+        assertSingleStatement(() -> requestRepository.findAllByRequesterIdIsNotOrderByCreatedDesc(1L, page)
+                .forEach(request -> request.getRequester().getId()));
+    }
+
+    private void readBooking(Booking booking) {
+        booking.getItem().getName();
+        booking.getBooker().getName();
+    }
+
+    private void assertSingleStatement(Runnable query) {
+        entityManager.clear();
+        assertEquals(1, SqlCaptor.capture(query).size());
+    }
+
+    private void assertIndexed(Runnable query) {
+        List<String> statements = SqlCaptor.capture(query);
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("explain " + sql),
+                    (ResultSetExtractor<String>) resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+            assertTrue(plan != null && !plan.contains(".tableScan"), "Sequential scan in plan:\n" + plan);
+        }
+    }
+}
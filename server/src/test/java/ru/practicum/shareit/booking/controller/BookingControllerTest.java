@@ -8,12 +8,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
@@ -22,7 +30,10 @@ import ru.practicum.shareit.exception.UserNotFoundException;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static ru.practicum.shareit.utils.ResourcePool.*;
 
 @WebMvcTest(BookingController.class)
@@ -60,6 +71,76 @@ class BookingControllerTest {
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
+    @Test
+    void createBookingsBatch() throws Exception {
+        BookingToGetDto saveBookingDto = read(saveBookingGetDto, BookingToGetDto.class);
+        List<BookingToGetDto> bookingDtos = List.of(saveBookingDto, saveBookingDto);
+        List<BookingBatchResultDto> results = List.of(
+                new BookingBatchResultDto(0, 1L, null),
+                new BookingBatchResultDto(1, null, "Вещь с ID=1 уже забронирована на выбранный период."));
+
+        Mockito
+                .when(bookingService.addAll(bookingDtos, 1L))
+                .thenReturn(results);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.post("/bookings/batch")
+                                .content(objectMapper.writeValueAsString(bookingDtos))
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(results)));
+        Mockito.verify(bookingService, Mockito.times(1)).addAll(bookingDtos, 1L);
+        Mockito.verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    void createBookingsBatch_shouldRejectEmptyAndOversizedBatches() throws Exception {
+        BookingToGetDto saveBookingDto = read(saveBookingGetDto, BookingToGetDto.class);
+        List<BookingToGetDto> oversized = new ArrayList<>();
+        for (int i = 0; i <= BookingController.MAX_BATCH_SIZE; i++) {
+            oversized.add(saveBookingDto);
+        }
+
+        for (List<BookingToGetDto> bookingDtos : List.of(new ArrayList<BookingToGetDto>(), oversized)) {
+            mockMvc
+                    .perform(
+                            MockMvcRequestBuilders.post("/bookings/batch")
+                                    .content(objectMapper.writeValueAsString(bookingDtos))
+                                    .header("X-Sharer-User-Id", 1L)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding(StandardCharsets.UTF_8))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void approveBookings() throws Exception {
+        BookingApprovalDto approvalDto = new BookingApprovalDto(List.of(1L, 2L), true);
+        List<BookingApprovalResultDto> results = List.of(
+                new BookingApprovalResultDto(1L, Status.APPROVED, null),
+                new BookingApprovalResultDto(2L, null, "Бронирование с ID=2 не найдено."));
+
+        Mockito
+                .when(bookingService.approveAll(List.of(1L, 2L), 1L, true))
+                .thenReturn(results);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.patch("/bookings/approval")
+                                .content(objectMapper.writeValueAsString(approvalDto))
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(results)));
+        Mockito.verify(bookingService, Mockito.times(1)).approveAll(List.of(1L, 2L), 1L, true);
+        Mockito.verifyNoMoreInteractions(bookingService);
+    }
+
     @Test
     void createBookingWithoutBody() throws Exception {
         mockMvc
@@ -170,6 +251,27 @@ class BookingControllerTest {
 
     }
 
+    @Test
+    void updateBooking_shouldReturnConflictOnConcurrentModification() throws Exception {
+        BookingToGetDto toUpdateBookingDto = read(toUpdateBookingGetDto, BookingToGetDto.class);
+
+        Mockito
+                .when(bookingService.update(toUpdateBookingDto, 1L, 1L, null))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.patch("/bookings/1")
+                                .content(objectMapper.writeValueAsString(toUpdateBookingDto))
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+        Mockito.verify(bookingService, Mockito.times(1))
+                .update(toUpdateBookingDto, 1L, 1L, null);
+        Mockito.verifyNoMoreInteractions(bookingService);
+    }
+
     @Test
     void updateBookingWithRejected() throws Exception {
         BookingToGetDto toUpdateBookingDto = read(toUpdateBookingGetDto, BookingToGetDto.class);
@@ -350,7 +452,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getBookingsByState(State.ALL, 1L, 0, 10))
+                .when(bookingService.getBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL))
                 .thenReturn(savedUserBookingsDto);
         mockMvc
                 .perform(
@@ -362,7 +464,7 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getBookingsByState(State.ALL, 1L, 0, 10);
+                .getBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -372,7 +474,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getBookingsByState(State.CURRENT, 1L, 1, 8))
+                .when(bookingService.getBookingsByState(State.CURRENT, 1L, 1, 8, Fields.ALL))
                 .thenReturn(savedUserBookingsDto);
         mockMvc
                 .perform(
@@ -384,7 +486,7 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getBookingsByState(State.CURRENT, 1L, 1, 8);
+                .getBookingsByState(State.CURRENT, 1L, 1, 8, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -394,7 +496,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getBookingsByState(State.ALL, 1L, 1, 8))
+                .when(bookingService.getBookingsByState(State.ALL, 1L, 1, 8, Fields.ALL))
                 .thenReturn(savedUserBookingsDto.subList(1, 3));
         mockMvc
                 .perform(
@@ -407,7 +509,7 @@ class BookingControllerTest {
                         MockMvcResultMatchers.content().json(
                                 objectMapper.writeValueAsString(savedUserBookingsDto.subList(1, 3))));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getBookingsByState(State.ALL, 1L, 1, 8);
+                .getBookingsByState(State.ALL, 1L, 1, 8, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -417,7 +519,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getBookingsByState(State.ALL, 1L, 0, 10))
+                .when(bookingService.getBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL))
                 .thenReturn(savedUserBookingsDto);
         mockMvc
                 .perform(
@@ -429,7 +531,89 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getBookingsByState(State.ALL, 1L, 0, 10);
+                .getBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL);
+        Mockito.verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    void getUserBookingsWithCursor() throws Exception {
+        ArrayList<BookingToReturnDto> savedUserBookingsDto = read(savedUserBookingsListReturnDto,
+                new TypeReference<>() {});
+        BookingToReturnDto last = savedUserBookingsDto.get(savedUserBookingsDto.size() - 1);
+        String expectedCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+
+        Mockito
+                .when(bookingService.getBookingsByStateAfter(eq(State.ALL), eq(1L), any(), eq(3), eq(Fields.ALL)))
+                .thenReturn(savedUserBookingsDto);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/bookings?cursor=&size=3")
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", expectedCursor))
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserBookingsDto)));
+        Mockito.verify(bookingService, Mockito.times(1))
+                .getBookingsByStateAfter(eq(State.ALL), eq(1L), any(), eq(3), eq(Fields.ALL));
+        Mockito.verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    void getUserBookingsWithCursorOnLastPage() throws Exception {
+        ArrayList<BookingToReturnDto> savedUserBookingsDto = read(savedUserBookingsListReturnDto,
+                new TypeReference<>() {});
+        BookingToReturnDto first = savedUserBookingsDto.get(0);
+        String cursor = new KeysetCursor(first.getStart(), first.getId()).encode();
+
+        Mockito
+                .when(bookingService.getBookingsByStateAfter(eq(State.ALL), eq(1L), any(), eq(10), eq(Fields.ALL)))
+                .thenReturn(savedUserBookingsDto);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/bookings?cursor=" + cursor)
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getUserBookingsWithWrongCursor() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/bookings?cursor=abc")
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void getUserItemsBookingsWithCursor() throws Exception {
+        ArrayList<BookingToReturnDto> savedUserItemsBookingsDto = read(savedUserItemsBookingsListReturnDto,
+                new TypeReference<>() {});
+        BookingToReturnDto last = savedUserItemsBookingsDto.get(savedUserItemsBookingsDto.size() - 1);
+        String expectedCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+
+        Mockito
+                .when(bookingService.getUserItemsBookingsByStateAfter(eq(State.WAITING), eq(1L), any(), eq(3), eq(Fields.ALL)))
+                .thenReturn(savedUserItemsBookingsDto);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/bookings/owner?state=WAITING&cursor=&size=3")
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", expectedCursor))
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserItemsBookingsDto)));
+        Mockito.verify(bookingService, Mockito.times(1))
+                .getUserItemsBookingsByStateAfter(eq(State.WAITING), eq(1L), any(), eq(3), eq(Fields.ALL));
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -439,7 +623,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 0, 10))
+                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL))
                 .thenReturn(savedUserItemsBookingsDto);
         mockMvc
                 .perform(
@@ -451,7 +635,7 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserItemsBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getUserItemsBookingsByState(State.ALL, 1L, 0, 10);
+                .getUserItemsBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -461,7 +645,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getUserItemsBookingsByState(State.CURRENT, 1L, 1, 8))
+                .when(bookingService.getUserItemsBookingsByState(State.CURRENT, 1L, 1, 8, Fields.ALL))
                 .thenReturn(savedUserItemsBookingsDto);
         mockMvc
                 .perform(
@@ -473,7 +657,7 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserItemsBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getUserItemsBookingsByState(State.CURRENT, 1L, 1, 8);
+                .getUserItemsBookingsByState(State.CURRENT, 1L, 1, 8, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -483,7 +667,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 1, 8))
+                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 1, 8, Fields.ALL))
                 .thenReturn(savedUserItemsBookingsDto.subList(1, 3));
         mockMvc
                 .perform(
@@ -496,7 +680,7 @@ class BookingControllerTest {
                         MockMvcResultMatchers.content().json(
                                 objectMapper.writeValueAsString(savedUserItemsBookingsDto.subList(1, 3))));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getUserItemsBookingsByState(State.ALL, 1L, 1, 8);
+                .getUserItemsBookingsByState(State.ALL, 1L, 1, 8, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -506,7 +690,7 @@ class BookingControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 0, 10))
+                .when(bookingService.getUserItemsBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL))
                 .thenReturn(savedUserItemsBookingsDto);
         mockMvc
                 .perform(
@@ -518,7 +702,7 @@ class BookingControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserItemsBookingsDto)));
         Mockito.verify(bookingService, Mockito.times(1))
-                .getUserItemsBookingsByState(State.ALL, 1L, 0, 10);
+                .getUserItemsBookingsByState(State.ALL, 1L, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(bookingService);
     }
 
@@ -6,15 +6,20 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingForItemProjection;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -111,6 +116,161 @@ class BookingRepositoryTest {
         assertEquals(actualBookings.size(), 0);
     }
 
+    @Test
+    @Transactional
+    void findAllByItemIdIn() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder()
+                .available(true).owner(user1).description("descr2").name("name2").build();
+        itemRepository.save(item2);
+        Item item3 = Item.builder()
+                .available(true).owner(user1).description("descr3").name("name3").build();
+        itemRepository.save(item3);
+
+        Booking booking1 = Booking.builder()
+                .item(item1).booker(user2).status(Status.WAITING)
+                .start(LocalDateTime.now().minusMonths(2))
+                .end(LocalDateTime.now().minusMonths(1))
+                .build();
+        bookingRepository.save(booking1);
+        Booking booking2 = Booking.builder()
+                .item(item2).booker(user2).status(Status.WAITING)
+                .start(LocalDateTime.now().minusMonths(2))
+                .end(LocalDateTime.now().minusMonths(1))
+                .build();
+        bookingRepository.save(booking2);
+        Booking booking3 = Booking.builder()
+                .item(item3).booker(user2).status(Status.WAITING)
+                .start(LocalDateTime.now().minusMonths(2))
+                .end(LocalDateTime.now().minusMonths(1))
+                .build();
+        bookingRepository.save(booking3);
+
+        List<Booking> actualBookings = bookingRepository.findAllByItemIdIn(Set.of(item1.getId(), item3.getId()));
+
+        assertEquals(actualBookings.size(), 2);
+        assertTrue(actualBookings.contains(booking1));
+        assertTrue(actualBookings.contains(booking3));
+    }
+
+    @Test
+    @Transactional
+    void findLastAndNextBookings() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder()
+                .available(true).owner(user1).description("descr2").name("name2").build();
+        itemRepository.save(item2);
+
+        Booking oldPast = Booking.builder()
+                .item(item1).booker(user2).status(Status.APPROVED)
+                .start(LocalDateTime.now().minusMonths(3))
+                .end(LocalDateTime.now().minusMonths(2))
+                .build();
+        bookingRepository.save(oldPast);
+        Booking lastPast = Booking.builder()
+                .item(item1).booker(user2).status(Status.APPROVED)
+                .start(LocalDateTime.now().minusMonths(2))
+                .end(LocalDateTime.now().minusMonths(1))
+                .build();
+        bookingRepository.save(lastPast);
+        Booking rejectedPast = Booking.builder()
+                .item(item1).booker(user2).status(Status.REJECTED)
+                .start(LocalDateTime.now().minusWeeks(2))
+                .end(LocalDateTime.now().minusWeeks(1))
+                .build();
+        bookingRepository.save(rejectedPast);
+        Booking nextFuture = Booking.builder()
+                .item(item1).booker(user2).status(Status.WAITING)
+                .start(LocalDateTime.now().plusMonths(1))
+                .end(LocalDateTime.now().plusMonths(2))
+                .build();
+        bookingRepository.save(nextFuture);
+        Booking farFuture = Booking.builder()
+                .item(item1).booker(user2).status(Status.APPROVED)
+                .start(LocalDateTime.now().plusMonths(3))
+                .end(LocalDateTime.now().plusMonths(4))
+                .build();
+        bookingRepository.save(farFuture);
+        Booking otherItemFuture = Booking.builder()
+                .item(item2).booker(user2).status(Status.APPROVED)
+                .start(LocalDateTime.now().plusMonths(5))
+                .end(LocalDateTime.now().plusMonths(6))
+                .build();
+        bookingRepository.save(otherItemFuture);
+
+        List<BookingForItemProjection> actualBookings = bookingRepository.findLastAndNextBookings(
+                Set.of(item1.getId(), item2.getId()), LocalDateTime.now());
+
+        assertEquals(actualBookings.size(), 3);
+        Set<Long> actualIds = actualBookings.stream()
+                .map(BookingForItemProjection::getId)
+                .collect(Collectors.toSet());
+        assertEquals(actualIds, Set.of(lastPast.getId(), nextFuture.getId(), otherItemFuture.getId()));
+        BookingForItemProjection next = actualBookings.stream()
+                .filter(booking -> booking.getId().equals(nextFuture.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(next.getItemId(), item1.getId());
+        assertEquals(next.getBookerId(), user2.getId());
+        assertNotNull(next.getStartDate());
+        assertNotNull(next.getEndDate());
+    }
+
+    @Test
+    @Transactional
+    void findAllUserBookingsAfter() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS);
+        Booking booking1 = Booking.builder()
+                .item(item1).booker(user2).status(Status.WAITING)
+                .start(start.plusDays(2)).end(start.plusDays(3))
+                .build();
+        bookingRepository.save(booking1);
+        Booking booking2 = Booking.builder()
+                .item(item1).booker(user2).status(Status.WAITING)
+                .start(start).end(start.plusDays(1))
+                .build();
+        bookingRepository.save(booking2);
+        Booking booking3 = Booking.builder()
+                .item(item1).booker(user2).status(Status.WAITING)
+                .start(start).end(start.plusDays(1))
+                .build();
+        bookingRepository.save(booking3);
+
+        List<Booking> firstPage = bookingRepository.findAllUserBookingsAfter(user2.getId(),
+                LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertEquals(firstPage, List.of(booking1, booking3));
+
+        Booking last = firstPage.get(firstPage.size() - 1);
+        List<Booking> secondPage = bookingRepository.findAllUserBookingsAfter(user2.getId(),
+                last.getStart(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(secondPage, List.of(booking2));
+    }
+
     @Test
     @Transactional
     void findAllSuccessfulBookings() {
@@ -1715,4 +1875,178 @@ class BookingRepositoryTest {
         assertNotNull(actualBookings);
         assertEquals(actualBookings.size(), 0);
     }
+
+    @Test
+    @Transactional
+    void existsApprovedOverlap() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+
+        LocalDateTime start = LocalDateTime.now().plusWeeks(1).truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime end = LocalDateTime.now().plusWeeks(2).truncatedTo(ChronoUnit.MICROS);
+        Booking booking1 = Booking.builder() // подтвержденный
+                .item(item1).booker(user2)
+                .start(start)
+                .end(end)
+                .status(Status.APPROVED)
+                .build();
+        bookingRepository.save(booking1);
+        Booking booking2 = Booking.builder() // ожидающий
+                .item(item1).booker(user2)
+                .start(end)
+                .end(end.plusWeeks(1))
+                .status(Status.WAITING)
+                .build();
+        bookingRepository.save(booking2);
+
+        assertTrue(bookingRepository.existsApprovedOverlap(item1.getId(), 0L,
+                start.plusDays(1), end.plusDays(1)));
+        assertTrue(bookingRepository.existsApprovedOverlap(item1.getId(), 0L,
+                start.minusDays(1), end.plusDays(1)));
+        assertFalse(bookingRepository.existsApprovedOverlap(item1.getId(), 0L,
+                end, end.plusDays(1)));
+        assertFalse(bookingRepository.existsApprovedOverlap(item1.getId(), 0L,
+                start.minusDays(1), start));
+        assertFalse(bookingRepository.existsApprovedOverlap(item1.getId(), booking1.getId(),
+                start.plusDays(1), end.plusDays(1)));
+    }
+
+    @Test
+    @Transactional
+    void insertAll() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder()
+                .available(true).owner(user1).description("descr2").name("name2").build();
+        itemRepository.save(item2);
+
+        LocalDateTime start = LocalDateTime.now().plusWeeks(1).truncatedTo(ChronoUnit.MICROS);
+        Booking booking1 = Booking.builder()
+                .item(item1).booker(user2)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .build();
+        Booking booking2 = Booking.builder()
+                .item(item2).booker(user2)
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .status(Status.WAITING)
+                .build();
+
+        List<Long> ids = bookingRepository.insertAll(List.of(booking1, booking2));
+        assertEquals(ids.size(), 2);
+
+        Booking actualBooking = bookingRepository.findById(ids.get(1)).orElseThrow();
+        assertEquals(actualBooking.getItem().getId(), item2.getId());
+        assertEquals(actualBooking.getBooker().getId(), user2.getId());
+        assertEquals(actualBooking.getStart(), booking2.getStart());
+        assertEquals(actualBooking.getStatus(), Status.WAITING);
+        assertEquals(actualBooking.getVersion(), 0L);
+    }
+
+    @Test
+    @Transactional
+    void approveAllOwnerBookings() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder()
+                .available(true).owner(user2).description("descr2").name("name2").build();
+        itemRepository.save(item2);
+
+        LocalDateTime start = LocalDateTime.now().plusWeeks(1).truncatedTo(ChronoUnit.MICROS);
+        Booking booking1 = Booking.builder() // подтвержденный
+                .item(item1).booker(user2)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.APPROVED)
+                .build();
+        bookingRepository.save(booking1);
+        Booking booking2 = Booking.builder() // ожидающий
+                .item(item1).booker(user2)
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .status(Status.WAITING)
+                .build();
+        bookingRepository.save(booking2);
+        Booking booking3 = Booking.builder() // чужая вещь
+                .item(item2).booker(user1)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .build();
+        bookingRepository.save(booking3);
+        List<Long> ids = List.of(booking1.getId(), booking2.getId(), booking3.getId());
+
+        List<Booking> lockedBookings = bookingRepository.lockAllOwnerBookings(ids, user1.getId());
+        assertEquals(lockedBookings.size(), 2);
+        assertEquals(lockedBookings.get(0).getId(), booking1.getId());
+        assertEquals(lockedBookings.get(1).getId(), booking2.getId());
+
+        List<Booking> overlaps = bookingRepository.findAllApprovedOverlaps(List.of(item1.getId(), item2.getId()),
+                start.minusDays(1), start.plusDays(3));
+        assertEquals(overlaps.size(), 1);
+        assertEquals(overlaps.get(0).getId(), booking1.getId());
+        assertEquals(bookingRepository.findAllApprovedOverlaps(List.of(item1.getId()),
+                start.plusDays(1), start.plusDays(3)).size(), 0);
+
+        assertEquals(bookingRepository.updateAllStatuses(ids, user1.getId(), Status.APPROVED), 1);
+        assertEquals(bookingRepository.findById(booking2.getId()).orElseThrow().getStatus(), Status.APPROVED);
+        assertEquals(bookingRepository.findById(booking3.getId()).orElseThrow().getStatus(), Status.WAITING);
+    }
+
+    @Test
+    @Transactional
+    void countAllApprovedByItemIdInAndStartAfter_shouldCountOnlyStartedApprovedBookings() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Status status : Status.values()) {
+            bookingRepository.save(Booking.builder()
+                    .item(item1).booker(user2).status(status)
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .build());
+        }
+        bookingRepository.save(Booking.builder() // ещё не началось
+                .item(item1).booker(user2).status(Status.APPROVED)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .build());
+        bookingRepository.save(Booking.builder() // слишком давно
+                .item(item1).booker(user2).status(Status.APPROVED)
+                .start(now.minusDays(40))
+                .end(now.minusDays(39))
+                .build());
+
+        List<ItemCountProjection> counts = bookingRepository.countAllApprovedByItemIdInAndStartAfter(
+                Set.of(item1.getId()), now.minusDays(30));
+        assertEquals(counts.size(), 1);
+        assertEquals(counts.get(0).getItemId(), item1.getId());
+        assertEquals(counts.get(0).getCount(), 1L);
+    }
 }
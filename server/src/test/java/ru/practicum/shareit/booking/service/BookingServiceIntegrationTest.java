@@ -7,11 +7,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.exception.BookingNotFoundException;
+import ru.practicum.shareit.exception.IllegalStatusException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.NoPermissionException;
 import ru.practicum.shareit.exception.UnavailableException;
@@ -25,11 +31,15 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -68,6 +78,7 @@ public class BookingServiceIntegrationTest {
                 .owner(user1).name("item1").description("descr1").available(true).build());
         ItemToReturnDto item1ReturnDto = ItemToReturnDto.builder()
                 .id(item1.getId()).description("descr1").name("item1").available(true).comments(new ArrayList<>())
+                .commentCount(0L)
                 .build();
         item2 = itemRepository.save(Item.builder()
                 .owner(user2).name("item2").description("descr2").available(false).build());
@@ -75,8 +86,8 @@ public class BookingServiceIntegrationTest {
                 .owner(user2).name("item3").description("descr3").available(true).build());
 
         bookingGetDto = BookingToGetDto.builder()
-                .start(LocalDateTime.now().plusWeeks(1))
-                .end(LocalDateTime.now().plusWeeks(2))
+                .start(LocalDateTime.now().plusWeeks(1).truncatedTo(ChronoUnit.MICROS))
+                .end(LocalDateTime.now().plusWeeks(2).truncatedTo(ChronoUnit.MICROS))
                 .itemId(item1.getId())
                 .build();
         bookingReturnDto = BookingToReturnDto.builder()
@@ -124,4 +135,129 @@ public class BookingServiceIntegrationTest {
         assertThrows(UnavailableException.class, () ->
                 bookingService.add(bookingGetDto, user1.getId(), item2.getId()));
     }
+
+    @Test
+    void add_shouldThrowBookingConflictException() {
+        User user3 = userRepository.save(User.builder().name("user3").email("email3@mail.ru").build());
+        BookingToReturnDto approvedBooking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        bookingService.update(null, user1.getId(), approvedBooking.getId(), true);
+        BookingToGetDto overlappingBooking = BookingToGetDto.builder()
+                .start(bookingGetDto.getStart().plusDays(1))
+                .end(bookingGetDto.getEnd().plusDays(1))
+                .itemId(item1.getId())
+                .build();
+
+        assertThrows(BookingConflictException.class, () ->
+                bookingService.add(overlappingBooking, user3.getId(), item1.getId()));
+    }
+
+    @Test
+    void add_shouldAddAdjacentBooking() {
+        User user3 = userRepository.save(User.builder().name("user3").email("email3@mail.ru").build());
+        BookingToReturnDto approvedBooking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        bookingService.update(null, user1.getId(), approvedBooking.getId(), true);
+        BookingToGetDto adjacentBooking = BookingToGetDto.builder()
+                .start(bookingGetDto.getEnd())
+                .end(bookingGetDto.getEnd().plusDays(1))
+                .itemId(item1.getId())
+                .build();
+
+        BookingToReturnDto actualBooking = bookingService.add(adjacentBooking, user3.getId(), item1.getId());
+        assertThat(actualBooking.getStatus(), equalTo(Status.WAITING));
+    }
+
+    @Test
+    void update_shouldThrowBookingConflictExceptionOnApprove() {
+        User user3 = userRepository.save(User.builder().name("user3").email("email3@mail.ru").build());
+        BookingToReturnDto firstBooking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        BookingToReturnDto secondBooking = bookingService.add(bookingGetDto, user3.getId(), item1.getId());
+        bookingService.update(null, user1.getId(), firstBooking.getId(), true);
+
+        assertThrows(BookingConflictException.class, () ->
+                bookingService.update(null, user1.getId(), secondBooking.getId(), true));
+    }
+
+    @Test
+    void update_shouldThrowIllegalStatusExceptionOnRepeatedApprove() {
+        BookingToReturnDto booking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        BookingToReturnDto approvedBooking = bookingService.update(null, user1.getId(), booking.getId(), true);
+        assertThat(approvedBooking.getStatus(), equalTo(Status.APPROVED));
+
+        assertThrows(IllegalStatusException.class, () ->
+                bookingService.update(null, user1.getId(), booking.getId(), true));
+        assertThrows(NoPermissionException.class, () ->
+                bookingService.update(null, user2.getId(), booking.getId(), false));
+
+        BookingToReturnDto rejectedBooking = bookingService.update(null, user1.getId(), booking.getId(), false);
+        assertThat(rejectedBooking.getStatus(), equalTo(Status.REJECTED));
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getVersion(), equalTo(2L));
+    }
+
+    @Test
+    void addAll() {
+        BookingToReturnDto approvedBooking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        bookingService.update(null, user1.getId(), approvedBooking.getId(), true);
+        User user3 = userRepository.save(User.builder().name("user3").email("email3@mail.ru").build());
+        BookingToGetDto freeBooking = BookingToGetDto.builder()
+                .start(bookingGetDto.getEnd())
+                .end(bookingGetDto.getEnd().plusDays(1))
+                .itemId(item1.getId())
+                .build();
+
+        List<BookingBatchResultDto> results = bookingService.addAll(
+                List.of(bookingGetDto, freeBooking, BookingToGetDto.builder()
+                        .start(bookingGetDto.getStart()).end(bookingGetDto.getEnd()).itemId(item2.getId()).build()),
+                user3.getId());
+
+        assertThat(results.size(), equalTo(3));
+        assertThat(results.get(0).getId(), nullValue());
+        assertThat(results.get(0).getError(), notNullValue());
+        assertThat(results.get(1).getError(), nullValue());
+        assertThat(results.get(2).getError(), notNullValue());
+        Booking createdBooking = bookingRepository.findById(results.get(1).getId()).orElseThrow();
+        assertThat(createdBooking.getStart(), equalTo(freeBooking.getStart()));
+        assertThat(createdBooking.getBooker().getId(), equalTo(user3.getId()));
+        assertThat(createdBooking.getStatus(), equalTo(Status.WAITING));
+    }
+
+    @Test
+    void approveAll() {
+        User user3 = userRepository.save(User.builder().name("user3").email("email3@mail.ru").build());
+        BookingToReturnDto firstBooking = bookingService.add(bookingGetDto, user2.getId(), item1.getId());
+        BookingToReturnDto overlappingBooking = bookingService.add(bookingGetDto, user3.getId(), item1.getId());
+        BookingToReturnDto adjacentBooking = bookingService.add(BookingToGetDto.builder()
+                .start(bookingGetDto.getEnd())
+                .end(bookingGetDto.getEnd().plusDays(1))
+                .itemId(item1.getId())
+                .build(), user3.getId(), item1.getId());
+        BookingToReturnDto foreignBooking = bookingService.add(BookingToGetDto.builder()
+                .start(bookingGetDto.getStart())
+                .end(bookingGetDto.getEnd())
+                .itemId(item3.getId())
+                .build(), user1.getId(), item3.getId());
+        List<Long> ids = List.of(firstBooking.getId(), overlappingBooking.getId(), adjacentBooking.getId(),
+                foreignBooking.getId());
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(ids, user1.getId(), true);
+
+        assertThat(results, equalTo(List.of(
+                new BookingApprovalResultDto(firstBooking.getId(), Status.APPROVED, null),
+                new BookingApprovalResultDto(overlappingBooking.getId(), null,
+                        new BookingConflictException(item1.getId()).getMessage()),
+                new BookingApprovalResultDto(adjacentBooking.getId(), Status.APPROVED, null),
+                new BookingApprovalResultDto(foreignBooking.getId(), null,
+                        new BookingNotFoundException(foreignBooking.getId()).getMessage()))));
+        assertThat(bookingRepository.findById(firstBooking.getId()).orElseThrow().getStatus(),
+                equalTo(Status.APPROVED));
+        assertThat(bookingRepository.findById(overlappingBooking.getId()).orElseThrow().getStatus(),
+                equalTo(Status.WAITING));
+        assertThat(bookingRepository.findById(foreignBooking.getId()).orElseThrow().getStatus(),
+                equalTo(Status.WAITING));
+
+        results = bookingService.approveAll(ids.subList(0, 3), user1.getId(), false);
+
+        assertThat(results.stream().map(BookingApprovalResultDto::getStatus).collect(Collectors.toList()),
+                equalTo(List.of(Status.REJECTED, Status.REJECTED, Status.REJECTED)));
+        assertThat(bookingRepository.findById(adjacentBooking.getId()).orElseThrow().getVersion(), equalTo(2L));
+    }
 }
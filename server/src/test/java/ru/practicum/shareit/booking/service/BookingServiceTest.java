@@ -9,6 +9,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingToGetDto;
 import ru.practicum.shareit.booking.dto.BookingToReturnDto;
@@ -16,20 +20,27 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
+import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.lookup.EntityLookupService;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -37,6 +48,7 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
                 classes = {BookingService.class, BookingMapper.class})
@@ -45,10 +57,15 @@ public class BookingServiceTest {
     @SpyBean private BookingMapper bookingMapper;
     @Autowired private BookingService bookingService;
     @MockBean private ItemMapper itemMapper;
+    @MockBean private CommentMapper commentMapper;
     @MockBean private JpaItemRepository itemRepository;
     @MockBean private JpaUserRepository userRepository;
     @MockBean private JpaBookingRepository bookingRepository;
     @MockBean private JpaCommentRepository commentRepository;
+    @MockBean private BookingIntervalIndex intervalIndex;
+    @MockBean private ItemSearchCache searchCache;
+    @MockBean private ItemCardCache cardCache;
+    @MockBean private EntityLookupService entityLookup;
 
     User user1;
     UserToReturnDto user1ReturnDto;
@@ -145,47 +162,47 @@ public class BookingServiceTest {
 
     @Test
     void getById() {
-        Mockito.when(userRepository.getReferenceById(user2.getId()))
+        Mockito.when(entityLookup.getUser(user2.getId()))
                 .thenReturn(user2);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         Mockito.when(bookingRepository.findAllByItemId(booking1.getItem().getId()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(commentRepository.findAllByItemId(booking1.getItem().getId()))
+        Mockito.when(commentRepository.findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10)))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
 
         BookingToReturnDto actualBooking = bookingService.getById(booking1.getId(), user2.getId());
 
         assertThat(actualBooking, equalTo(booking1ReturnDto));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user2.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user2.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .findById(booking1.getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemId(booking1.getItem().getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllByItemId(booking1.getItem().getId());
+                .findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(commentRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
     }
 
     @Test
     void getById_shouldThrowUserNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(user3.getId() + 1))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(entityLookup.getUser(user3.getId() + 1))
+                .thenThrow(UserNotFoundException.class);
 
         assertThrows(UserNotFoundException.class, () ->
                 bookingService.getById(booking1.getId(), user3.getId() + 1));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user3.getId() + 1);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user3.getId() + 1);
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verifyNoInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
@@ -194,18 +211,18 @@ public class BookingServiceTest {
 
     @Test
     void getById_shouldThrowBookingNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(user2.getId()))
+        Mockito.when(entityLookup.getUser(user2.getId()))
                 .thenReturn(user2);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId() + 10))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(bookingRepository.findById(booking1.getId() + 10))
+                .thenReturn(Optional.empty());
         assertThrows(BookingNotFoundException.class, () ->
                 bookingService.getById(booking1.getId() + 10, user2.getId()));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user2.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user2.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId() + 10);
+                .findById(booking1.getId() + 10);
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -213,17 +230,17 @@ public class BookingServiceTest {
 
     @Test
     void getById_shouldThrowNoPermissionsException() {
-        Mockito.when(userRepository.getReferenceById(user3.getId()))
+        Mockito.when(entityLookup.getUser(user3.getId()))
                 .thenReturn(user3);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         assertThrows(NoPermissionException.class, () -> bookingService.getById(booking1.getId(), user3.getId()));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user3.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user3.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .findById(booking1.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -231,19 +248,19 @@ public class BookingServiceTest {
 
     @Test
     void getBookingsByState_getByCurrent() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserCurrentBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.CURRENT,
@@ -252,39 +269,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserCurrentBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getBookingsByState_getByPast() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserPastBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.PAST,
@@ -293,39 +310,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserPastBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getBookingsByState_getByFuture() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserFutureBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.FUTURE,
@@ -334,39 +351,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserFutureBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getBookingsByState_getByWaiting() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserWaitingBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.WAITING,
@@ -375,39 +392,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserWaitingBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getBookingsByState_getByRejected() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserRejectedBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.REJECTED,
@@ -416,39 +433,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserRejectedBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getBookingsByState_getByAll() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.ALL,
@@ -457,39 +474,62 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
+    @Test
+    void getBookingsByState_shouldSkipItemDetailsWhenNotSelected() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(bookingRepository.findAllUserBookings(user1.getId(), PageRequest.of(0, 10)))
+                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
+                .thenReturn(item1ReturnDto);
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
+                .thenReturn(item2ReturnDto);
+
+        List<BookingToReturnDto> actualBookings = bookingService.getBookingsByState(State.ALL,
+                user1.getId(), 0, 10, Fields.parse("id,start,end,status"));
+
+        assertThat(actualBookings.size(), equalTo(2));
+        assertThat(actualBookings.get(0).getId(), equalTo(booking1.getId()));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllUserBookings(user1.getId(), PageRequest.of(0, 10));
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
     @Test
     void getUserItemsBookingsByState_getByCurrent() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.CURRENT,
@@ -498,39 +538,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByCurrentWithFrom() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.CURRENT,
@@ -539,38 +579,38 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByCurrentWithBigFrom() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         Mockito.when(bookingRepository.findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(1, 10)))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.CURRENT,
@@ -579,8 +619,8 @@ public class BookingServiceTest {
         assertThat(actualBookings, notNullValue());
         assertThat(actualBookings.size(), equalTo(0));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(1, 10));
@@ -591,19 +631,19 @@ public class BookingServiceTest {
 
     @Test
     void getUserItemsBookingsByState_getByCurrentWithSize() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2);
         Mockito.when(bookingRepository.findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 2)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.CURRENT,
@@ -612,39 +652,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(2));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsCurrentBookings(user1.getId(), PageRequest.of(0, 2));
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByPast() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsPastBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.PAST,
@@ -653,39 +693,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsPastBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByFuture() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsFutureBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.FUTURE,
@@ -694,39 +734,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsFutureBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByWaiting() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsWaitingBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.WAITING,
@@ -735,39 +775,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsWaitingBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByRejected() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsRejectedBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.REJECTED,
@@ -776,39 +816,39 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsRejectedBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
     @Test
     void getUserItemsBookingsByState_getByAll() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Booking> bookings = List.of(booking1,booking2, booking3);
         Mockito.when(bookingRepository.findAllUserItemsBookings(user1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(bookings);
-        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
-        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item2ReturnDto);
 
-        Mockito.when(commentRepository.findAllByItemId(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.findAllByItemId(any()))
+        Mockito.when(bookingRepository.findAllByItemIdIn(any()))
                 .thenReturn(new ArrayList<>());
 
         List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByState(State.ALL,
@@ -817,113 +857,415 @@ public class BookingServiceTest {
         assertThat(actualBookings.size(), equalTo(3));
         assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto, booking3ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllUserItemsBookings(user1.getId(), PageRequest.of(0, 10));
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(itemMapper, Mockito.times(2))
-                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(any());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
     }
 
+    @Test
+    void getBookingsByStateAfter_getByAll() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        KeysetCursor cursor = new KeysetCursor(booking3.getStart(), booking3.getId());
+        List<Booking> bookings = List.of(booking1, booking2);
+        Mockito.when(bookingRepository.findAllUserBookingsAfter(user1.getId(), cursor.getTimestamp(), cursor.getId(),
+                        PageRequest.of(0, 2)))
+                .thenReturn(bookings);
+        Mockito.when(itemMapper.toReturnDto(item1, new ArrayList<>(), new ArrayList<>(), 0L))
+                .thenReturn(item1ReturnDto);
+        Mockito.when(itemMapper.toReturnDto(item2, new ArrayList<>(), new ArrayList<>(), 0L))
+                .thenReturn(item2ReturnDto);
+
+        List<BookingToReturnDto> actualBookings = bookingService.getBookingsByStateAfter(State.ALL,
+                user1.getId(), cursor, 2);
+
+        assertThat(actualBookings.size(), equalTo(2));
+        assertTrue(actualBookings.containsAll(List.of(booking1ReturnDto, booking2ReturnDto)));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllUserBookingsAfter(user1.getId(), cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, 2));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdIn(any());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void getUserItemsBookingsByStateAfter_getByWaiting() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        KeysetCursor cursor = new KeysetCursor(booking3.getStart(), booking3.getId());
+        Mockito.when(bookingRepository.findAllUserItemsWaitingBookingsAfter(user1.getId(), cursor.getTimestamp(),
+                        cursor.getId(), PageRequest.of(0, 10)))
+                .thenReturn(new ArrayList<>());
+
+        List<BookingToReturnDto> actualBookings = bookingService.getUserItemsBookingsByStateAfter(State.WAITING,
+                user1.getId(), cursor, 10);
+
+        assertThat(actualBookings.size(), equalTo(0));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllUserItemsWaitingBookingsAfter(user1.getId(), cursor.getTimestamp(), cursor.getId(),
+                        PageRequest.of(0, 10));
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void addAll_shouldReportResultPerElement() {
+        BookingToGetDto ownItemBooking = BookingToGetDto.builder()
+                .start(booking1.getStart()).end(booking1.getEnd()).itemId(item2.getId()).build();
+        BookingToGetDto missingItemBooking = BookingToGetDto.builder()
+                .start(booking1.getStart()).end(booking1.getEnd()).itemId(99L).build();
+        BookingToGetDto validBooking = BookingToGetDto.builder()
+                .start(booking1.getStart()).end(booking1.getEnd()).itemId(item1.getId()).build();
+        Mockito.when(entityLookup.getUser(user2.getId()))
+                .thenReturn(user2);
+        Mockito.when(entityLookup.getItem(item1.getId()))
+                .thenReturn(item1);
+        Mockito.when(entityLookup.getItem(item2.getId()))
+                .thenReturn(item2);
+        Mockito.when(entityLookup.getItem(99L))
+                .thenThrow(new ItemNotFoundException(99L));
+        Mockito.when(bookingRepository.insertAll(any()))
+                .thenReturn(List.of(5L));
+
+        List<BookingBatchResultDto> results = bookingService.addAll(
+                List.of(ownItemBooking, missingItemBooking, validBooking), user2.getId());
+
+        assertThat(results, equalTo(List.of(
+                new BookingBatchResultDto(0, null, new NoPermissionException(item2.getId()).getMessage()),
+                new BookingBatchResultDto(1, null, new ItemNotFoundException(99L).getMessage()),
+                new BookingBatchResultDto(2, 5L, null))));
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .queueItems(Set.of(item1.getId(), item2.getId(), 99L));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .touchAllById(eq(Set.of(item1.getId())), any());
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .insertAll(List.of(Booking.builder()
+                        .start(validBooking.getStart()).end(validBooking.getEnd())
+                        .item(item1).booker(user2).status(Status.WAITING).build()));
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .hasConflict(item1.getId(), 0L, validBooking.getStart(), validBooking.getEnd());
+        Mockito.verifyNoMoreInteractions(intervalIndex);
+    }
+
+    @Test
+    void addAll_shouldReportInvalidElements() {
+        BookingToGetDto noItemBooking = BookingToGetDto.builder()
+                .start(booking1.getStart()).end(booking1.getEnd()).build();
+        BookingToGetDto noStartBooking = BookingToGetDto.builder()
+                .end(booking1.getEnd()).itemId(item1.getId()).build();
+        BookingToGetDto reversedBooking = BookingToGetDto.builder()
+                .start(booking1.getEnd()).end(booking1.getStart()).itemId(item1.getId()).build();
+        Mockito.when(entityLookup.getUser(user2.getId()))
+                .thenReturn(user2);
+        Mockito.when(bookingRepository.insertAll(any()))
+                .thenReturn(List.of());
+
+        List<BookingBatchResultDto> results = bookingService.addAll(
+                List.of(noItemBooking, noStartBooking, reversedBooking), user2.getId());
+
+        assertThat(results, equalTo(List.of(
+                new BookingBatchResultDto(0, null, "ID предмета не должен быть пустым."),
+                new BookingBatchResultDto(1, null, "Начало бронирования должно быть указано."),
+                new BookingBatchResultDto(2, null,
+                        "Время начала бронирования должно быть перед временем окончания."))));
+        Mockito.verify(entityLookup, Mockito.times(1)).queueItems(Set.of(item1.getId()));
+        Mockito.verify(entityLookup, Mockito.never()).getItem(any());
+        Mockito.verify(bookingRepository, Mockito.times(1)).insertAll(List.of());
+        Mockito.verifyNoInteractions(intervalIndex);
+    }
+
+    @Test
+    void addAll_shouldThrowUserNotFoundException() {
+        Mockito.when(entityLookup.getUser(99L))
+                .thenThrow(UserNotFoundException.class);
+
+        assertThrows(UserNotFoundException.class, () ->
+                bookingService.addAll(List.of(booking1GetDto), 99L));
+
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void approveAll_shouldApproveNonOverlappingBookings() {
+        Booking booking5 = Booking.builder()
+                .id(5L).start(booking3.getEnd()).end(booking3.getEnd().plusWeeks(1)).item(item1).booker(user3)
+                .status(Status.WAITING)
+                .build();
+        List<Long> ids = List.of(booking1.getId(), booking3.getId(), booking5.getId(), 99L);
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(bookingRepository.lockAllOwnerBookings(ids, user1.getId()))
+                .thenReturn(List.of(booking1, booking3, booking5));
+        Mockito.when(bookingRepository.findAllApprovedOverlaps(Set.of(item1.getId()),
+                        booking1.getStart(), booking5.getEnd()))
+                .thenReturn(List.of(booking3));
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(ids, user1.getId(), true);
+
+        assertThat(results, equalTo(List.of(
+                new BookingApprovalResultDto(booking1.getId(), null,
+                        new BookingConflictException(item1.getId()).getMessage()),
+                new BookingApprovalResultDto(booking3.getId(), null, "Нельзя поменять статус на такой же."),
+                new BookingApprovalResultDto(booking5.getId(), Status.APPROVED, null),
+                new BookingApprovalResultDto(99L, null, new BookingNotFoundException(99L).getMessage()))));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .lockAllById(Set.of(item1.getId()));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .touchAllById(eq(Set.of(item1.getId())), any());
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .lockAllOwnerBookings(ids, user1.getId());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllApprovedOverlaps(Set.of(item1.getId()), booking1.getStart(), booking5.getEnd());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .updateAllStatuses(List.of(booking5.getId()), user1.getId(), Status.APPROVED);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .add(booking5);
+        Mockito.verifyNoMoreInteractions(intervalIndex);
+    }
+
+    @Test
+    void approveAll_shouldRejectWithoutOverlapCheck() {
+        List<Long> ids = List.of(booking1.getId(), booking3.getId());
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(bookingRepository.lockAllOwnerBookings(ids, user1.getId()))
+                .thenReturn(List.of(booking1, booking3));
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(ids, user1.getId(), false);
+
+        assertThat(results, equalTo(List.of(
+                new BookingApprovalResultDto(booking1.getId(), Status.REJECTED, null),
+                new BookingApprovalResultDto(booking3.getId(), Status.REJECTED, null))));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .touchAllById(eq(Set.of(item1.getId())), any());
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .lockAllOwnerBookings(ids, user1.getId());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .updateAllStatuses(ids, user1.getId(), Status.REJECTED);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .remove(item1.getId(), booking3.getId(), booking3.getStart());
+        Mockito.verifyNoMoreInteractions(intervalIndex);
+    }
+
+    @Test
+    void approveAll_shouldThrowUserNotFoundException() {
+        Mockito.when(entityLookup.getUser(99L))
+                .thenThrow(UserNotFoundException.class);
+
+        assertThrows(UserNotFoundException.class, () ->
+                bookingService.approveAll(List.of(booking1.getId()), 99L, true));
+
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(intervalIndex);
+    }
+
     @Test
     void update_withNotNullBooking() {
-        Mockito.when(userRepository.getReferenceById(user2.getId()))
+        Mockito.when(entityLookup.getUser(user2.getId()))
                 .thenReturn(user2);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         Mockito.when(bookingRepository.findAllByItemId(booking1.getItem().getId()))
                 .thenReturn(new ArrayList<>());
         Mockito.when(bookingRepository.save(booking4))
                 .thenReturn(booking4);
-        Mockito.when(commentRepository.findAllByItemId(booking1.getItem().getId()))
+        Mockito.when(commentRepository.findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10)))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(itemMapper.toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
 
         BookingToReturnDto updatedBooking = bookingService.update(booking4GetDto, user2.getId(), booking1.getId(), null);
 
         assertThat(updatedBooking, equalTo(booking4ReturnDto));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user2.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user2.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .findById(booking1.getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .findAllByItemId(booking1.getItem().getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
                 .save(booking4);
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllByItemId(booking1.getItem().getId());
+                .findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(commentRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
     }
 
     @Test
     void update_shouldUpdateWithTrueApproved() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        booking1.setStatus(Status.APPROVED);
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.updateStatus(booking1.getId(), user1.getId(), Status.APPROVED))
+                .thenReturn(1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         Mockito.when(bookingRepository.findAllByItemId(booking1.getItem().getId()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingRepository.save(booking1))
-                .thenReturn(booking1);
-        Mockito.when(commentRepository.findAllByItemId(booking1.getItem().getId()))
+        Mockito.when(commentRepository.findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10)))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(itemMapper.toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>()))
+        Mockito.when(itemMapper.toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>(), 0L))
                 .thenReturn(item1ReturnDto);
 
         BookingToReturnDto updatedBooking = bookingService.update(null, user1.getId(), booking1.getId(), true);
         booking1ReturnDto.setStatus(Status.APPROVED);
         assertThat(updatedBooking, equalTo(booking1ReturnDto));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .updateStatus(booking1.getId(), user1.getId(), Status.APPROVED);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .findAllByItemId(booking1.getItem().getId());
+                .findById(booking1.getId());
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .save(booking1);
+                .existsApprovedOverlap(item1.getId(), booking1.getId(), booking1.getStart(), booking1.getEnd());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemId(booking1.getItem().getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllByItemId(booking1.getItem().getId());
+                .findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(commentRepository);
         Mockito.verify(itemMapper, Mockito.times(1))
-                .toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>());
+                .toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>(), 0L);
         Mockito.verifyNoMoreInteractions(itemMapper);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .lockById(item1.getId());
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .add(booking1);
+        Mockito.verifyNoMoreInteractions(intervalIndex);
+    }
+
+    @Test
+    void update_withTrueApproved_shouldThrowBookingConflictException() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(bookingRepository.updateStatus(booking1.getId(), user1.getId(), Status.APPROVED))
+                .thenReturn(1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
+        Mockito.when(bookingRepository.existsApprovedOverlap(item1.getId(), booking1.getId(),
+                        booking1.getStart(), booking1.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(BookingConflictException.class, () ->
+                bookingService.update(null, user1.getId(), booking1.getId(), true));
+
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .lockById(item1.getId());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .updateStatus(booking1.getId(), user1.getId(), Status.APPROVED);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findById(booking1.getId());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .existsApprovedOverlap(item1.getId(), booking1.getId(), booking1.getStart(), booking1.getEnd());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(intervalIndex);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void update_withNotNullBooking_shouldThrowBookingConflictException() {
+        Mockito.when(entityLookup.getUser(user2.getId()))
+                .thenReturn(user2);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
+        Mockito.when(intervalIndex.hasConflict(item1.getId(), booking1.getId(),
+                        booking4GetDto.getStart(), booking4GetDto.getEnd()))
+                .thenReturn(true);
+        Mockito.when(bookingRepository.existsApprovedOverlap(item1.getId(), booking1.getId(),
+                        booking4GetDto.getStart(), booking4GetDto.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(BookingConflictException.class, () ->
+                bookingService.update(booking4GetDto, user2.getId(), booking1.getId(), null));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findById(booking1.getId());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .existsApprovedOverlap(item1.getId(), booking1.getId(),
+                        booking4GetDto.getStart(), booking4GetDto.getEnd());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .hasConflict(item1.getId(), booking1.getId(), booking4GetDto.getStart(), booking4GetDto.getEnd());
+        Mockito.verifyNoMoreInteractions(intervalIndex);
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void update_withNotNullBooking_shouldEvictStaleIntervals() {
+        Mockito.when(entityLookup.getUser(user2.getId()))
+                .thenReturn(user2);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
+        Mockito.when(intervalIndex.hasConflict(item1.getId(), booking1.getId(),
+                        booking4GetDto.getStart(), booking4GetDto.getEnd()))
+                .thenReturn(true);
+        Mockito.when(bookingRepository.findAllByItemId(booking1.getItem().getId()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(bookingRepository.save(booking4))
+                .thenReturn(booking4);
+        Mockito.when(commentRepository.findLatestByItemId(booking1.getItem().getId(), PageRequest.of(0, 10)))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(itemMapper.toReturnDto(booking1.getItem(), new ArrayList<>(), new ArrayList<>(), 0L))
+                .thenReturn(item1ReturnDto);
+
+        BookingToReturnDto updatedBooking = bookingService.update(booking4GetDto, user2.getId(), booking1.getId(), null);
+
+        assertThat(updatedBooking, equalTo(booking4ReturnDto));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .existsApprovedOverlap(item1.getId(), booking1.getId(),
+                        booking4GetDto.getStart(), booking4GetDto.getEnd());
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .hasConflict(item1.getId(), booking1.getId(), booking4GetDto.getStart(), booking4GetDto.getEnd());
+        Mockito.verify(intervalIndex, Mockito.times(1))
+                .evict(item1.getId());
+        Mockito.verifyNoMoreInteractions(intervalIndex);
     }
 
     @Test
     void update_withNotNullBooking_shouldThrowNoPermissionException() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
 
         assertThrows(NoPermissionException.class, () ->
                 bookingService.update(booking4GetDto, user1.getId(), booking1.getId(), null));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .findById(booking1.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -931,18 +1273,20 @@ public class BookingServiceTest {
 
     @Test
     void update_withTrueApproved_shouldThrowNoPermissionException() {
-        Mockito.when(userRepository.getReferenceById(user2.getId()))
+        Mockito.when(entityLookup.getUser(user2.getId()))
                 .thenReturn(user2);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         assertThrows(NoPermissionException.class, () ->
                 bookingService.update(null, user2.getId(), booking1.getId(), true));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user2.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user2.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .updateStatus(booking1.getId(), user2.getId(), Status.APPROVED);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findById(booking1.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -952,18 +1296,20 @@ public class BookingServiceTest {
     void update_withTrueApproved_shouldThrowIllegalStatusException() {
         booking4.setStatus(Status.APPROVED);
         booking4ReturnDto.setStatus(Status.APPROVED);
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(bookingRepository.getReferenceById(booking4.getId()))
-                .thenReturn(booking4);
+        Mockito.when(bookingRepository.findById(booking4.getId()))
+                .thenReturn(Optional.of(booking4));
         assertThrows(IllegalStatusException.class, () ->
                 bookingService.update(null, user1.getId(), booking4.getId(), true));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .updateStatus(booking4.getId(), user1.getId(), Status.APPROVED);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findById(booking1.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -973,18 +1319,20 @@ public class BookingServiceTest {
     void update_withFalseApproved_shouldThrowIllegalStatusException() {
         booking4.setStatus(Status.REJECTED);
         booking4ReturnDto.setStatus(Status.REJECTED);
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(bookingRepository.getReferenceById(booking4.getId()))
-                .thenReturn(booking4);
+        Mockito.when(bookingRepository.findById(booking4.getId()))
+                .thenReturn(Optional.of(booking4));
         assertThrows(IllegalStatusException.class, () ->
                 bookingService.update(null, user1.getId(), booking4.getId(), false));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking4.getId());
+                .updateStatus(booking4.getId(), user1.getId(), Status.REJECTED);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findById(booking4.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -992,18 +1340,18 @@ public class BookingServiceTest {
 
     @Test
     void update_shouldThrowUnavailableException() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(bookingRepository.getReferenceById(booking1.getId()))
-                .thenReturn(booking1);
+        Mockito.when(bookingRepository.findById(booking1.getId()))
+                .thenReturn(Optional.of(booking1));
         assertThrows(UnavailableException.class, () ->
                 bookingService.update(null, user1.getId(), booking1.getId(), null));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(bookingRepository, Mockito.times(1))
-                .getReferenceById(booking1.getId());
+                .findById(booking1.getId());
         Mockito.verifyNoMoreInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
         Mockito.verifyNoInteractions(itemMapper);
@@ -3,8 +3,10 @@ package ru.practicum.shareit.comment.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.comment.dto.CommentForItemProjection;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
@@ -12,7 +14,10 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -88,4 +93,76 @@ class CommentRepositoryTest {
         List<Comment> actualComments = commentRepository.findAllByItemId(item2.getId() + 1);
         assertEquals(actualComments.size(), 0);
     }
+
+    @Test
+    @Transactional
+    void findAllByItemIdIn() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder()
+                .available(true).owner(user1).description("descr2").name("name2").build();
+        itemRepository.save(item2);
+        Item item3 = Item.builder()
+                .available(true).owner(user1).description("descr3").name("name3").build();
+        itemRepository.save(item3);
+
+        Comment comment1 = Comment.builder()
+                .created(LocalDateTime.now()).author(user2).text("Comment1 text").item(item1).build();
+        commentRepository.save(comment1);
+        Comment comment2 = Comment.builder()
+                .created(LocalDateTime.now()).author(user2).text("Comment2 text").item(item2).build();
+        commentRepository.save(comment2);
+        Comment comment3 = Comment.builder()
+                .created(LocalDateTime.now()).author(user2).text("Comment3 text").item(item3).build();
+        commentRepository.save(comment3);
+
+        List<Comment> actualComments = commentRepository.findAllByItemIdIn(Set.of(item1.getId(), item2.getId()));
+        assertEquals(actualComments.size(), 2);
+        assertTrue(actualComments.contains(comment1));
+        assertTrue(actualComments.contains(comment2));
+    }
+
+    @Test
+    @Transactional
+    void findLatestByItemId_shouldPageByCursor() {
+        User user1 = userRepository.save(User.builder().name("name1").email("email1@mail.ru").build());
+        User user2 = userRepository.save(User.builder().name("name2").email("email2@mail.ru").build());
+        Item item1 = itemRepository.save(Item.builder()
+                .available(true).owner(user1).description("descr1").name("name1").build());
+        Item item2 = itemRepository.save(Item.builder()
+                .available(true).owner(user1).description("descr2").name("name2").build());
+
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(commentRepository.save(Comment.builder()
+                    .created(created.plusHours(i)).author(user2).text("Comment" + i).item(item1).build()));
+        }
+        commentRepository.save(Comment.builder()
+                .created(created.plusDays(1)).author(user2).text("Other").item(item2).build());
+
+        assertEquals(List.of(comments.get(4), comments.get(3)),
+                commentRepository.findLatestByItemId(item1.getId(), PageRequest.of(0, 2)));
+        assertEquals(List.of(comments.get(2), comments.get(1)),
+                commentRepository.findAllByItemIdBefore(item1.getId(), comments.get(3).getCreated(),
+                        comments.get(3).getId(), PageRequest.of(0, 2)));
+        assertEquals(5L, commentRepository.countAllByItemId(item1.getId()));
+
+        List<CommentForItemProjection> latest = commentRepository.findLatestByItemIdIn(
+                Set.of(item1.getId(), item2.getId()), 2);
+        assertEquals(Set.of(comments.get(4).getId(), comments.get(3).getId()), latest.stream()
+                .filter(comment -> comment.getItemId().equals(item1.getId()))
+                .map(CommentForItemProjection::getId)
+                .collect(Collectors.toSet()));
+        assertEquals(1, latest.stream()
+                .filter(comment -> comment.getItemId().equals(item2.getId()))
+                .peek(comment -> assertEquals("name2", comment.getAuthorName()))
+                .count());
+    }
 }
@@ -7,21 +7,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.comment.dto.CommentToGetDto;
 import ru.practicum.shareit.comment.dto.CommentToReturnDto;
+import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UnavailableException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -35,6 +42,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class CommentServiceIntegrationTest {
     @Autowired CommentService commentService;
+    @Autowired ItemService itemService;
     @Autowired JpaBookingRepository bookingRepository;
     @Autowired JpaUserRepository userRepository;
     @Autowired JpaItemRepository itemRepository;
@@ -132,4 +140,23 @@ public class CommentServiceIntegrationTest {
         assertThrows(UserNotFoundException.class, () ->
                 commentService.add(commentGetDto, user2.getId() + 1, item2.getId()));
     }
+
+    @Test
+    void getItemComments_shouldContinueAfterEmbeddedComments() {
+        LocalDateTime created = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < 12; i++) {
+            commentRepository.save(Comment.builder()
+                    .created(created.plusMinutes(i)).author(user1).text("comment" + i).item(item2).build());
+        }
+
+        ItemToReturnDto item = itemService.getById(item2.getId(), user1.getId());
+        assertThat(item.getCommentCount(), equalTo(12L));
+        assertThat(item.getComments().size(), equalTo(10));
+        assertThat(item.getComments().get(0).getText(), equalTo("comment11"));
+
+        List<CommentToReturnDto> rest = commentService.getItemComments(item2.getId(), user1.getId(),
+                KeysetCursor.decode(item.getCommentsCursor()), 10);
+        assertThat(rest.stream().map(CommentToReturnDto::getText).collect(Collectors.toList()),
+                equalTo(List.of("comment1", "comment0")));
+    }
 }
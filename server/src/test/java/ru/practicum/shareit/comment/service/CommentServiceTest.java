@@ -7,20 +7,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
 import ru.practicum.shareit.exception.CommentNotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.lookup.EntityLookupService;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -36,6 +43,9 @@ public class CommentServiceTest {
     @MockBean private JpaUserRepository userRepository;
     @MockBean private JpaItemRepository itemRepository;
     @MockBean private JpaBookingRepository bookingRepository;
+    @MockBean private ItemSearchCache searchCache;
+    @MockBean private ItemCardCache cardCache;
+    @MockBean private EntityLookupService entityLookup;
 
     User user1;
     UserToReturnDto user1ReturnDto;
@@ -59,14 +69,14 @@ public class CommentServiceTest {
 
     @Test
     void getById() {
-        Mockito.when(commentRepository.getReferenceById(comment1.getId()))
-                .thenReturn(comment1);
+        Mockito.when(commentRepository.findById(comment1.getId()))
+                .thenReturn(Optional.of(comment1));
 
         CommentToReturnDto actualComment = commentService.getById(comment1.getId());
         assertThat(actualComment, equalTo(comment1ReturnDto));
 
         Mockito.verify(commentRepository, Mockito.times(1))
-                .getReferenceById(comment1.getId());
+                .findById(comment1.getId());
         Mockito.verifyNoMoreInteractions(commentRepository);
         Mockito.verify(commentMapper, Mockito.times(1))
                 .toReturnDto(comment1);
@@ -75,14 +85,34 @@ public class CommentServiceTest {
 
     @Test
     void getById_ShouldThrowCommentNotFoundException() {
-        Mockito.when(commentRepository.getReferenceById(comment1.getId() + 1))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(commentRepository.findById(comment1.getId() + 1))
+                .thenReturn(Optional.empty());
 
         assertThrows(CommentNotFoundException.class, () -> commentService.getById(comment1.getId() + 1));
 
         Mockito.verify(commentRepository, Mockito.times(1))
-                .getReferenceById(comment1.getId() + 1);
+                .findById(comment1.getId() + 1);
         Mockito.verifyNoMoreInteractions(commentRepository);
         Mockito.verifyNoInteractions(commentMapper);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getItemComments_shouldPageFromCursor() {
+        Item item = Item.builder().id(1L).owner(user1).build();
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(entityLookup.getItem(item.getId()))
+                .thenReturn(item);
+        Mockito.when(commentRepository.findAllByItemIdBefore(item.getId(), comment1.getCreated(), 5L,
+                        PageRequest.of(0, 2)))
+                .thenReturn(List.of(comment1));
+
+        List<CommentToReturnDto> actualComments = commentService.getItemComments(item.getId(), user1.getId(),
+                new KeysetCursor(comment1.getCreated(), 5L), 2);
+        assertThat(actualComments, equalTo(List.of(comment1ReturnDto)));
+
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findAllByItemIdBefore(item.getId(), comment1.getCreated(), 5L, PageRequest.of(0, 2));
+        Mockito.verifyNoMoreInteractions(commentRepository);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.item.service.ItemNameIndex;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemTrigramIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestIndex;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class IndexRefresherTest {
+    private final LocalDateTime now = LocalDateTime.now();
+    private JpaItemRepository itemRepository;
+    private JpaItemRequestRepository requestRepository;
+    private ItemTrigramIndex trigramIndex;
+    private ItemNameIndex nameIndex;
+    private ItemRequestIndex requestIndex;
+    private ItemSearchCache searchCache;
+    private ItemCardCache cardCache;
+    private IndexRefresher indexRefresher;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = Mockito.mock(JpaItemRepository.class);
+        Mockito.when(itemRepository.findAllUpdatedAfter(any(), anyLong(), any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(itemRepository.findAllUpdatedAfter(IndexRefresher.EPOCH, 0L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(
+                        item(1L, "Дрель", now.minusHours(1)),
+                        item(3L, "Отвертка", now)));
+        requestRepository = Mockito.mock(JpaItemRequestRepository.class);
+        Mockito.when(requestRepository.findAllCreatedAfter(any(), anyLong(), any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(requestRepository.findAllCreatedAfter(IndexRefresher.EPOCH, 0L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(request(5L, "Нужна дрель", now)));
+        trigramIndex = new ItemTrigramIndex();
+        nameIndex = new ItemNameIndex();
+        requestIndex = new ItemRequestIndex();
+        searchCache = new ItemSearchCache(new SimpleMeterRegistry());
+        cardCache = Mockito.mock(ItemCardCache.class);
+        indexRefresher = new IndexRefresher(itemRepository, requestRepository, trigramIndex, nameIndex,
+                requestIndex, searchCache, cardCache);
+        indexRefresher.build();
+    }
+
+    @Test
+    void build_shouldIndexAllItems() {
+        assertThat(trigramIndex.findCandidates("дрель"), equalTo(new long[]{1L}));
+        assertThat(trigramIndex.findCandidates("вертк"), equalTo(new long[]{3L}));
+        assertThat(nameIndex.findByPrefix("дре", 10), equalTo(List.of(new ItemSuggestionDto(1L, "Дрель"))));
+        assertThat(requestIds(requestIndex.findMatches(2L, "Дрель")), equalTo(List.of(5L)));
+    }
+
+    @Test
+    void refresh_shouldPickUpLateCommittedRequests() {
+        Mockito.when(requestRepository.findAllCreatedAfter(now.minus(IndexRefresher.OVERLAP), 0L,
+                        PageRequest.of(0, 1000)))
+                .thenReturn(List.of(request(4L, "Молоток", now.minusSeconds(30)), request(5L, "Нужна дрель", now)));
+
+        indexRefresher.refresh();
+
+        assertThat(requestIds(requestIndex.findMatches(2L, "Молоток")), equalTo(List.of(4L)));
+        assertThat(requestIds(requestIndex.findMatches(2L, "Дрель")), equalTo(List.of(5L)));
+    }
+
+    @Test
+    void refresh_shouldPickUpLateCommitsAndEdits() {
+        Mockito.when(itemRepository.findAllUpdatedAfter(now.minus(IndexRefresher.OVERLAP), 0L,
+                        PageRequest.of(0, 1000)))
+                .thenReturn(List.of(
+                        item(2L, "Дрель ударная", now.minusSeconds(10)),
+                        item(3L, "Стремянка", now),
+                        item(1L, "Перфоратор", now.plusSeconds(5))));
+
+        indexRefresher.refresh();
+
+        assertThat(trigramIndex.findCandidates("дрель"), equalTo(new long[]{2L}));
+        assertThat(trigramIndex.findCandidates("вертк"), equalTo(new long[0]));
+        assertThat(trigramIndex.findCandidates("перфо"), equalTo(new long[]{1L}));
+        assertThat(nameIndex.findByPrefix("дре", 10), equalTo(List.of(new ItemSuggestionDto(2L, "Дрель ударная"))));
+        assertThat(nameIndex.findByPrefix("пер", 10), equalTo(List.of(new ItemSuggestionDto(1L, "Перфоратор"))));
+
+        indexRefresher.refresh();
+
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllUpdatedAfter(now.plusSeconds(5).minus(IndexRefresher.OVERLAP), 0L, PageRequest.of(0, 1000));
+    }
+
+    @Test
+    void refresh_shouldInvalidateCachesOnlyForChangedItems() {
+        Mockito.when(itemRepository.findAllUpdatedAfter(now.minus(IndexRefresher.OVERLAP), 0L,
+                        PageRequest.of(0, 1000)))
+                .thenReturn(List.of(item(3L, "Отвертка", now)));
+        long generation = searchCache.getGeneration();
+
+        indexRefresher.refresh();
+
+        assertThat(searchCache.getGeneration(), equalTo(generation));
+        Mockito.verifyNoInteractions(cardCache);
+
+        Mockito.when(itemRepository.findAllUpdatedAfter(now.minus(IndexRefresher.OVERLAP), 0L,
+                        PageRequest.of(0, 1000)))
+                .thenReturn(List.of(item(3L, "Отвертка", now), item(1L, "Дрель", now.minusSeconds(30))));
+
+        indexRefresher.refresh();
+
+        assertThat(searchCache.getGeneration(), greaterThan(generation));
+        Mockito.verify(cardCache, Mockito.times(1)).invalidateAll(Set.of(1L));
+        Mockito.verifyNoMoreInteractions(cardCache);
+    }
+
+    private Item item(Long id, String name, LocalDateTime updated) {
+        return Item.builder().id(id).name(name).description("").available(true).updated(updated).build();
+    }
+
+    private ItemRequest request(Long id, String description, LocalDateTime created) {
+        return ItemRequest.builder().id(id).requester(User.builder().id(1L).build()).description(description)
+                .created(created).build();
+    }
+
+    private List<Long> requestIds(List<ItemRequestIndex.Match> matches) {
+        return matches.stream().map(match -> match.requestId).collect(Collectors.toList());
+    }
+}
@@ -11,19 +11,31 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.comment.dto.CommentToGetDto;
 import ru.practicum.shareit.comment.dto.CommentToReturnDto;
 import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.exception.InvalidIntervalException;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UnavailableException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static ru.practicum.shareit.utils.ResourcePool.*;
 
 @WebMvcTest(ItemController.class)
@@ -353,7 +365,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> savedItemsDto = read(savedItemsListReturnDto, new TypeReference<>() {});
 
         Mockito
-                .when(itemService.getByOwnerId(1L, 0, 10))
+                .when(itemService.getByOwnerId(1L, 0, 10, Fields.ALL))
                 .thenReturn(savedItemsDto);
         mockMvc
                 .perform(
@@ -364,7 +376,29 @@ class ItemControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedItemsDto)));
-        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  0, 10, Fields.ALL);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    void getItemsListWithFields() throws Exception {
+        ArrayList<ItemToReturnDto> savedItemsDto = read(savedItemsListReturnDto, new TypeReference<>() {});
+
+        Mockito
+                .when(itemService.getByOwnerId(1L, 0, 10, Fields.parse("id,name")))
+                .thenReturn(savedItemsDto);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items?fields=id,name")
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(savedItemsDto.get(0).getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(savedItemsDto.get(0).getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].description").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].available").doesNotExist());
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L, 0, 10, Fields.parse("id,name"));
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -373,7 +407,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> savedItemsDto = read(savedItemsListReturnDto, new TypeReference<>() {});
 
         Mockito
-                .when(itemService.getByOwnerId(1L, 1, 10))
+                .when(itemService.getByOwnerId(1L, 1, 10, Fields.ALL))
                 .thenReturn(savedItemsDto.subList(1,3));
         mockMvc
                 .perform(
@@ -385,7 +419,7 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(savedItemsDto.subList(1,3))));
-        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  1, 10);
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  1, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -394,7 +428,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> savedItemsDto = read(savedItemsListReturnDto, new TypeReference<>() {});
 
         Mockito
-                .when(itemService.getByOwnerId(1L, 0, 2))
+                .when(itemService.getByOwnerId(1L, 0, 2, Fields.ALL))
                 .thenReturn(savedItemsDto.subList(0,3));
         mockMvc
                 .perform(
@@ -406,7 +440,7 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(savedItemsDto.subList(0,3))));
-        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  0, 2);
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  0, 2, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -415,7 +449,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> savedItemsDto = read(savedItemsListReturnDto, new TypeReference<>() {});
 
         Mockito
-                .when(itemService.getByOwnerId(1L, 2, 1))
+                .when(itemService.getByOwnerId(1L, 2, 1, Fields.ALL))
                 .thenReturn(savedItemsDto.subList(1,2));
         mockMvc
                 .perform(
@@ -427,7 +461,7 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(savedItemsDto.subList(1,2))));
-        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  2, 1);
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(1L,  2, 1, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -446,7 +480,7 @@ class ItemControllerTest {
     @Test
     void getItemsListByNonExistentUser() throws Exception {
         Mockito
-                .when(itemService.getByOwnerId(99L, 0, 10))
+                .when(itemService.getByOwnerId(99L, 0, 10, Fields.ALL))
                 .thenThrow(UserNotFoundException.class);
         mockMvc
                 .perform(
@@ -455,7 +489,7 @@ class ItemControllerTest {
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .characterEncoding(StandardCharsets.UTF_8))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
-        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(99L,  0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).getByOwnerId(99L,  0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -475,7 +509,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
                 new TypeReference<>() {});
         Mockito
-                .when(itemService.search("search", 0, 10))
+                .when(itemService.search("search", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL))
                 .thenReturn(foundUserBookingsDto);
 
         mockMvc
@@ -487,7 +521,163 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(foundUserBookingsDto)));
-        Mockito.verify(itemService, Mockito.times(1)).search("search",  0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).search("search", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    void getItemComments() throws Exception {
+        CommentToReturnDto comment = CommentToReturnDto.builder()
+                .id(3L).text("text").authorName("name").created(LocalDateTime.of(2024, 1, 1, 12, 0)).build();
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 1, 2, 12, 0), 5L);
+        Mockito
+                .when(commentService.getItemComments(Mockito.eq(1L), Mockito.eq(2L), Mockito.any(), Mockito.eq(1)))
+                .thenReturn(List.of(comment));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/1/comments?size=1&cursor=" + cursor.encode())
+                                .header("X-Sharer-User-Id", 2L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor",
+                        new KeysetCursor(comment.getCreated(), comment.getId()).encode()))
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(List.of(comment))));
+        Mockito.verify(commentService, Mockito.times(1)).getItemComments(Mockito.eq(1L), Mockito.eq(2L),
+                Mockito.argThat(actual -> actual.getId().equals(5L)
+                        && actual.getTimestamp().equals(cursor.getTimestamp())), Mockito.eq(1));
+        Mockito.verifyNoMoreInteractions(commentService);
+    }
+
+    @Test
+    void getItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        List<ItemAvailabilityDto> intervals = List.of(
+                new ItemAvailabilityDto(from, from.plusDays(2), false),
+                new ItemAvailabilityDto(from.plusDays(2), to, true));
+        Mockito
+                .when(itemService.getAvailability(1L, 2L, from, to))
+                .thenReturn(intervals);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/1/availability?from=" + from + "&to=" + to)
+                                .header("X-Sharer-User-Id", 2L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(intervals)));
+        Mockito.verify(itemService, Mockito.times(1)).getAvailability(1L, 2L, from, to);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        ItemAvailabilityDto busy = new ItemAvailabilityDto(from, from.plusDays(2), false);
+        ItemAvailabilityDto free = new ItemAvailabilityDto(from.plusDays(2), to, true);
+        Mockito
+                .doAnswer(invocation -> {
+                    Consumer<ItemAvailabilityDto> consumer = invocation.getArgument(4);
+                    consumer.accept(busy);
+                    consumer.accept(free);
+                    return null;
+                })
+                .when(itemService).streamAvailability(eq(1L), eq(2L), eq(from), eq(to), any(Consumer.class));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/1/availability?from=" + from + "&to=" + to)
+                                .header("X-Sharer-User-Id", 2L)
+                                .accept("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.content().string(objectMapper.writeValueAsString(busy) + "\n"
+                        + objectMapper.writeValueAsString(free) + "\n"));
+        Mockito.verify(itemService, Mockito.times(1))
+                .streamAvailability(eq(1L), eq(2L), eq(from), eq(to), any(Consumer.class));
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamItemAvailability_shouldReturnErrorAsJson() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Mockito
+                .doThrow(new InvalidIntervalException("Начало периода должно быть раньше его окончания."))
+                .when(itemService).streamAvailability(eq(1L), eq(2L), eq(from), eq(from), any(Consumer.class));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/1/availability?from=" + from + "&to=" + from)
+                                .header("X-Sharer-User-Id", 2L)
+                                .accept("application/x-ndjson", "application/json"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void suggestItems() throws Exception {
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(1L, "Дрель"));
+        Mockito
+                .when(itemService.suggest("дре", 5))
+                .thenReturn(suggestions);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/suggest?prefix=дре&size=5")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(suggestions)));
+        Mockito.verify(itemService, Mockito.times(1)).suggest("дре", 5);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    void searchItemsBySubstring() throws Exception {
+        ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
+                new TypeReference<>() {});
+        Mockito
+                .when(itemService.search("sear", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10, Fields.ALL))
+                .thenReturn(foundUserBookingsDto);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/search?text=sear&mode=SUBSTRING")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers.content()
+                                .json(objectMapper.writeValueAsString(foundUserBookingsDto)));
+        Mockito.verify(itemService, Mockito.times(1)).search("sear", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10, Fields.ALL);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    void searchItemsByRelevance() throws Exception {
+        ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
+                new TypeReference<>() {});
+        Mockito
+                .when(itemService.search("search", SearchMode.FULLTEXT, SearchOrder.RELEVANCE, 0, 10, Fields.ALL))
+                .thenReturn(foundUserBookingsDto);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/search?text=search&order=relevance")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers.content()
+                                .json(objectMapper.writeValueAsString(foundUserBookingsDto)));
+        Mockito.verify(itemService, Mockito.times(1))
+                .search("search", SearchMode.FULLTEXT, SearchOrder.RELEVANCE, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -496,7 +686,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
                 new TypeReference<>() {});
         Mockito
-                .when(itemService.search("search", 2, 10))
+                .when(itemService.search("search", SearchMode.FULLTEXT, SearchOrder.ID, 2, 10, Fields.ALL))
                 .thenReturn(foundUserBookingsDto.subList(1, 3));
 
         mockMvc
@@ -508,7 +698,7 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(foundUserBookingsDto.subList(1, 3))));
-        Mockito.verify(itemService, Mockito.times(1)).search("search",  2, 10);
+        Mockito.verify(itemService, Mockito.times(1)).search("search", SearchMode.FULLTEXT, SearchOrder.ID, 2, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
@@ -517,7 +707,7 @@ class ItemControllerTest {
         ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
                 new TypeReference<>() {});
         Mockito
-                .when(itemService.search("search", 0, 2))
+                .when(itemService.search("search", SearchMode.FULLTEXT, SearchOrder.ID, 0, 2, Fields.ALL))
                 .thenReturn(foundUserBookingsDto.subList(0, 2));
 
         mockMvc
@@ -529,14 +719,38 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(foundUserBookingsDto.subList(0, 2))));
-        Mockito.verify(itemService, Mockito.times(1)).search("search",  0, 2);
+        Mockito.verify(itemService, Mockito.times(1)).search("search", SearchMode.FULLTEXT, SearchOrder.ID, 0, 2, Fields.ALL);
+        Mockito.verifyNoMoreInteractions(itemService);
+    }
+
+    @Test
+    void searchItemsDuringWindow() throws Exception {
+        ArrayList<ItemToReturnDto> foundUserBookingsDto = read(savedItemsListForSearchReturnDto,
+                new TypeReference<>() {});
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime end = start.plusDays(2);
+        Mockito
+                .when(itemService.search("search", SearchMode.FULLTEXT, SearchOrder.ID, start, end, 0, 10,
+                        Fields.ALL))
+                .thenReturn(foundUserBookingsDto);
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/items/search?text=search&start=" + start + "&end=" + end)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(foundUserBookingsDto)));
+        Mockito.verify(itemService, Mockito.times(1))
+                .search("search", SearchMode.FULLTEXT, SearchOrder.ID, start, end, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
     @Test
     void searchItemsWithEmptyText() throws Exception {
         Mockito
-                .when(itemService.search("", 0, 10))
+                .when(itemService.search("", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL))
                 .thenReturn(new ArrayList<>());
         mockMvc
                 .perform(
@@ -547,14 +761,14 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(new ArrayList<>())));
-        Mockito.verify(itemService, Mockito.times(1)).search("",  0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).search("", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
     @Test
     void searchItemsWithoutParams() throws Exception {
         Mockito
-                .when(itemService.search("", 0, 10))
+                .when(itemService.search("", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL))
                 .thenReturn(new ArrayList<>());
         mockMvc
                 .perform(
@@ -565,7 +779,7 @@ class ItemControllerTest {
                 .andExpect(
                         MockMvcResultMatchers.content()
                                 .json(objectMapper.writeValueAsString(new ArrayList<>())));
-        Mockito.verify(itemService, Mockito.times(1)).search("",  0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).search("", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10, Fields.ALL);
         Mockito.verifyNoMoreInteractions(itemService);
     }
 
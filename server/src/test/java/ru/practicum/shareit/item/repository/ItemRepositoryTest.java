@@ -12,11 +12,16 @@ import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @DataJpaTest
 @TestPropertySource(locations = "classpath:application-test.yml")
@@ -285,4 +290,47 @@ public class ItemRepositoryTest {
         assertNotNull(actualItems);
         assertEquals(actualItems.size(), 0);
     }
+
+    @Test
+    @Transactional
+    void searchFullText_shouldFindByWholeWords() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+
+        Item item1 = Item.builder() // подходит
+                .available(true).owner(user1).description("Аккумуляторная дрель").name("Дрель").build();
+        itemRepository.save(item1);
+        Item item2 = Item.builder() // недоступен
+                .available(false).owner(user2).description("Простая дрель").name("Дрель").build();
+        itemRepository.save(item2);
+        Item item3 = Item.builder() // слово только в описании
+                .available(true).owner(user1).description("Дрель, шуруповерт").name("Набор").build();
+        itemRepository.save(item3);
+        Item item4 = Item.builder() // только часть слова
+                .available(true).owner(user2).description("Дрели и отвертки").name("Инструменты").build();
+        itemRepository.save(item4);
+
+        List<Item> actualItems = itemRepository.searchFullText("дРелЬ", PageRequest.of(0, 10));
+        assertEquals(actualItems, List.of(item1, item3));
+
+        actualItems = itemRepository.searchFullText("аккумуляторная дрель", PageRequest.of(0, 10));
+        assertEquals(actualItems, List.of(item1));
+
+        actualItems = itemRepository.searchFullText("дрель", PageRequest.of(1, 1));
+        assertEquals(actualItems, List.of(item3));
+    }
+
+    @Test
+    void getSearch_shouldFailFastOnUnsupportedDatabase() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+
+        assertThrows(IllegalStateException.class, () -> ItemSearchRepositoryImpl.getSearch(dataSource));
+    }
 }
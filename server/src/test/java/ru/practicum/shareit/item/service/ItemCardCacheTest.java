@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ItemCardCacheTest {
+    private static final Long OWNER_ID = 1L;
+    private static final Long USER_ID = 2L;
+    private SimpleMeterRegistry meterRegistry;
+    private ItemCardCache cardCache;
+    private ItemToReturnDto ownerView;
+    private ItemToReturnDto publicView;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cardCache = new ItemCardCache(meterRegistry);
+        ownerView = ItemToReturnDto.builder().id(1L).name("Дрель").comments(List.of())
+                .nextBooking(BookingForItemDto.builder().id(1L).start(LocalDateTime.now().plusDays(1)).build())
+                .build();
+        publicView = ItemToReturnDto.builder().id(1L).name("Дрель").comments(List.of()).build();
+    }
+
+    @Test
+    void get_shouldKeepOwnerAndPublicViewsApart() {
+        assertNull(cardCache.get(1L, OWNER_ID));
+
+        cardCache.put(OWNER_ID, OWNER_ID, ownerView, cardCache.getVersion());
+        assertNull(cardCache.get(1L, USER_ID));
+        cardCache.put(OWNER_ID, USER_ID, publicView, cardCache.getVersion());
+
+        assertThat(cardCache.get(1L, OWNER_ID), equalTo(ownerView));
+        assertThat(cardCache.get(1L, USER_ID), equalTo(publicView));
+        assertThat(meterRegistry.counter("item.card.cache.requests", "result", "hit").count(), equalTo(2.0));
+        assertThat(meterRegistry.counter("item.card.cache.requests", "result", "miss").count(), equalTo(2.0));
+    }
+
+    @Test
+    void invalidate_shouldDropBothViewsAndConcurrentPuts() {
+        long version = cardCache.getVersion();
+        cardCache.put(OWNER_ID, OWNER_ID, ownerView, version);
+        cardCache.put(OWNER_ID, USER_ID, publicView, version);
+
+        cardCache.invalidate(1L);
+
+        assertNull(cardCache.get(1L, OWNER_ID));
+        assertNull(cardCache.get(1L, USER_ID));
+        cardCache.put(OWNER_ID, USER_ID, publicView, version);
+        assertNull(cardCache.get(1L, USER_ID));
+    }
+
+    @Test
+    void get_shouldExpireOwnerViewWhenNextBookingStarts() {
+        ownerView.getNextBooking().setStart(LocalDateTime.now().minusSeconds(1));
+        cardCache.put(OWNER_ID, OWNER_ID, ownerView, cardCache.getVersion());
+        cardCache.put(OWNER_ID, USER_ID, publicView, cardCache.getVersion());
+
+        assertNull(cardCache.get(1L, OWNER_ID));
+        assertThat(cardCache.get(1L, USER_ID), equalTo(publicView));
+    }
+}
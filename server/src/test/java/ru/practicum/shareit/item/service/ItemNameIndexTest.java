@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemNameIndexTest {
+    private ItemNameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        nameIndex = new ItemNameIndex();
+        nameIndex.put(Item.builder().id(1L).name("Дрель").available(true).build());
+        nameIndex.put(Item.builder().id(2L).name("Дрель ударная").available(true).build());
+        nameIndex.put(Item.builder().id(3L).name("Домкрат").available(true).build());
+        nameIndex.put(Item.builder().id(4L).name("Дрезина").available(false).build());
+    }
+
+    @Test
+    void findByPrefix_shouldReturnAvailableItemsInNameOrder() {
+        assertThat(nameIndex.findByPrefix("дре", 10), equalTo(List.of(
+                new ItemSuggestionDto(1L, "Дрель"),
+                new ItemSuggestionDto(2L, "Дрель ударная"))));
+        assertThat(nameIndex.findByPrefix("Д", 2), equalTo(List.of(
+                new ItemSuggestionDto(3L, "Домкрат"),
+                new ItemSuggestionDto(1L, "Дрель"))));
+        assertThat(nameIndex.findByPrefix("пила", 10), equalTo(List.of()));
+    }
+
+    @Test
+    void put_shouldReplaceRenamedAndHideUnavailableItems() {
+        nameIndex.put(Item.builder().id(1L).name("Перфоратор").available(true).build());
+        nameIndex.put(Item.builder().id(2L).name("Дрель ударная").available(false).build());
+        nameIndex.put(Item.builder().id(4L).name("Дрезина").available(true).build());
+
+        assertThat(nameIndex.findByPrefix("дре", 10), equalTo(List.of(new ItemSuggestionDto(4L, "Дрезина"))));
+        assertThat(nameIndex.findByPrefix("пер", 10), equalTo(List.of(new ItemSuggestionDto(1L, "Перфоратор"))));
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemRankingTest {
+    private final ItemTextDto nameToken = new ItemTextDto(1L, "Дрель", "Инструмент");
+    private final ItemTextDto nameSubstring = new ItemTextDto(2L, "Супердрель", "Инструмент");
+    private final ItemTextDto descriptionToken = new ItemTextDto(3L, "Набор", "Дрель и биты");
+    private final ItemTextDto descriptionSubstring = new ItemTextDto(4L, "Набор", "Супердрель");
+
+    @Test
+    void getPage_shouldOrderByScore() {
+        ItemRanking ranking = new ItemRanking("дрель", 10);
+        for (ItemTextDto item : List.of(descriptionSubstring, descriptionToken, nameSubstring, nameToken)) {
+            ranking.offer(item, 0, 0);
+        }
+
+        assertThat(ranking.getPage(0), equalTo(List.of(1L, 2L, 3L, 4L)));
+        assertThat(ranking.getPage(3), equalTo(List.of(4L)));
+    }
+
+    @Test
+    void getPage_shouldBoostPopularItems() {
+        ItemRanking ranking = new ItemRanking("дрел", 10);
+        ranking.offer(nameToken, 0, 0);
+        ranking.offer(nameSubstring, 3, 2);
+
+        assertThat(ranking.getPage(0), equalTo(List.of(2L, 1L)));
+    }
+
+    @Test
+    void offer_shouldKeepOnlyTopItems() {
+        ItemRanking ranking = new ItemRanking("дрель", 2);
+        for (ItemTextDto item : List.of(descriptionSubstring, nameToken, descriptionToken, nameSubstring)) {
+            ranking.offer(item, 0, 0);
+        }
+
+        assertThat(ranking.getPage(0), equalTo(List.of(1L, 2L)));
+    }
+}
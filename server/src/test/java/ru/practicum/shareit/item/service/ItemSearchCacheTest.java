@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ItemSearchCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchCache searchCache;
+    private List<ItemToReturnDto> page;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchCache = new ItemSearchCache(meterRegistry);
+        page = List.of(ItemToReturnDto.builder().id(1L).name("Дрель").build());
+    }
+
+    @Test
+    void key_shouldNormalizeTextAndOffset() {
+        assertThat(ItemSearchCache.key("Дрель", SearchMode.FULLTEXT, SearchOrder.ID, 3, 10),
+                equalTo(ItemSearchCache.key("дРЕЛЬ", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10)));
+    }
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        String key = ItemSearchCache.key("дрель", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10);
+        assertNull(searchCache.get(key));
+
+        searchCache.put(key, searchCache.getGeneration(), page);
+
+        assertThat(searchCache.get(key), equalTo(page));
+        assertThat(meterRegistry.counter("item.search.cache.requests", "result", "hit").count(), equalTo(1.0));
+        assertThat(meterRegistry.counter("item.search.cache.requests", "result", "miss").count(), equalTo(1.0));
+    }
+
+    @Test
+    void invalidate_shouldHideStalePages() {
+        String key = ItemSearchCache.key("дрель", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10);
+        long generation = searchCache.getGeneration();
+        searchCache.put(key, generation, page);
+
+        searchCache.invalidate();
+
+        assertNull(searchCache.get(key));
+        searchCache.put(key, generation, page);
+        assertNull(searchCache.get(key));
+        assertThat(searchCache.size(), equalTo(0));
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedPagesOverWeight() {
+        List<ItemToReturnDto> bigPage = new ArrayList<>();
+        for (long i = 0; i < ItemSearchCache.MAX_WEIGHT / 2; i++) {
+            bigPage.add(ItemToReturnDto.builder().id(i).build());
+        }
+        searchCache.put("first", searchCache.getGeneration(), bigPage);
+        searchCache.put("second", searchCache.getGeneration(), bigPage);
+        searchCache.get("first");
+
+        searchCache.put("third", searchCache.getGeneration(), page);
+
+        assertNull(searchCache.get("second"));
+        assertThat(searchCache.get("first"), equalTo(bigPage));
+        assertThat(searchCache.get("third"), equalTo(page));
+        assertThat(searchCache.weight(), equalTo(ItemSearchCache.MAX_WEIGHT / 2 + 1));
+        assertThat(meterRegistry.counter("item.search.cache.evictions").count(), equalTo(1.0));
+    }
+}
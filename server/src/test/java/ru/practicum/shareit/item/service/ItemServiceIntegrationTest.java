@@ -7,16 +7,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.Fields;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingToGetDto;
+import ru.practicum.shareit.booking.dto.BookingToReturnDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.dto.UserToGetDto;
@@ -25,9 +32,13 @@ import ru.practicum.shareit.user.repository.JpaUserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -70,16 +81,17 @@ public class ItemServiceIntegrationTest {
         booking = bookingRepository.save(Booking.builder()
                 .booker(user1)
                 .item(itemMapper.toEntity(item1ReturnDto, user1))
-                .end(LocalDateTime.now().minusWeeks(1))
-                .start(LocalDateTime.now().minusWeeks(2))
+                .end(LocalDateTime.now().minusWeeks(1).truncatedTo(ChronoUnit.MICROS))
+                .start(LocalDateTime.now().minusWeeks(2).truncatedTo(ChronoUnit.MICROS))
                 .status(Status.WAITING)
                 .build());
     }
 
     @AfterEach
     void clear() {
-        userRepository.deleteAll();
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
+        userRepository.deleteAll();
     }
 
     @Test
@@ -108,4 +120,139 @@ public class ItemServiceIntegrationTest {
         assertThrows(ItemNotFoundException.class, () ->
                 itemService.getById(item2ReturnDto.getId() + 1,user2.getId()));
     }
+
+    @Test
+    void searchBySubstring() {
+        ItemToReturnDto item3ReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Дрель").description("Аккумуляторная дрель").available(true).build(), user2.getId());
+        ItemToReturnDto item4ReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Отвертка").description("Крестовая").available(true).build(), user2.getId());
+
+        assertThat(itemService.search("ДРЕЛ", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(item3ReturnDto.getId())));
+        assertThat(itemService.search("descr", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(item1ReturnDto.getId())));
+
+        itemService.update(ItemToGetDto.builder().name("Шуруповерт").build(), item3ReturnDto.getId(), user2.getId());
+        itemService.update(ItemToGetDto.builder().description("Дрель-шуруповерт").build(),
+                item4ReturnDto.getId(), user2.getId());
+
+        assertThat(itemService.search("шуруп", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(item3ReturnDto.getId(), item4ReturnDto.getId())));
+        assertThat(itemService.search("Крест", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).size(), equalTo(0));
+    }
+
+    @Test
+    void searchDuringWindow_shouldSkipItemsWithApprovedOverlaps() {
+        ItemToReturnDto bookedReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Стремянка").description("Алюминиевая").available(true).build(), user2.getId());
+        ItemToReturnDto freeReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Стремянка").description("Деревянная").available(true).build(), user2.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MICROS);
+        bookingRepository.save(Booking.builder()
+                .booker(user1)
+                .item(itemRepository.getReferenceById(bookedReturnDto.getId()))
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .status(Status.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .booker(user1)
+                .item(itemRepository.getReferenceById(freeReturnDto.getId()))
+                .start(start.plusDays(1))
+                .end(start.plusDays(3))
+                .status(Status.REJECTED)
+                .build());
+
+        for (SearchMode mode : SearchMode.values()) {
+            assertThat(itemService.search("стремянка", mode, SearchOrder.ID, start, start.plusDays(2), 0, 10,
+                            Fields.ALL).stream()
+                    .map(ItemToReturnDto::getId)
+                    .collect(Collectors.toList()), equalTo(List.of(freeReturnDto.getId())));
+            assertThat(itemService.search("стремянка", mode, SearchOrder.RELEVANCE, start.plusDays(3),
+                            start.plusDays(5), 0, 10, Fields.ALL).size(), equalTo(2));
+        }
+    }
+
+    @Test
+    void searchByRelevance() {
+        ItemToReturnDto kitReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Набор").description("Дрель и биты").available(true).build(), user2.getId());
+        ItemToReturnDto drillReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Дрель").description("Ударная").available(true).build(), user2.getId());
+
+        assertThat(itemService.search("дрель", SearchMode.SUBSTRING, SearchOrder.RELEVANCE, 0, 10).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(drillReturnDto.getId(), kitReturnDto.getId())));
+        assertThat(itemService.search("дрель", SearchMode.FULLTEXT, SearchOrder.RELEVANCE, 1, 1).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(kitReturnDto.getId())));
+    }
+
+    @Test
+    void suggest() {
+        ItemToReturnDto chiselReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Зубило").description("Слесарное").available(true).build(), user2.getId());
+        ItemToReturnDto clampReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Зажим").description("Струбцина").available(true).build(), user2.getId());
+
+        assertThat(itemService.suggest("з", 10), equalTo(List.of(
+                new ItemSuggestionDto(clampReturnDto.getId(), "Зажим"),
+                new ItemSuggestionDto(chiselReturnDto.getId(), "Зубило"))));
+
+        itemService.update(ItemToGetDto.builder().available(false).build(), clampReturnDto.getId(), user2.getId());
+        itemService.update(ItemToGetDto.builder().name("Перфоратор").build(), chiselReturnDto.getId(), user2.getId());
+
+        assertThat(itemService.suggest("з", 10).size(), equalTo(0));
+        assertThat(itemService.suggest("ПЕР", 10), equalTo(List.of(
+                new ItemSuggestionDto(chiselReturnDto.getId(), "Перфоратор"))));
+    }
+
+    @Test
+    void search_shouldNotServeStalePages() {
+        assertThat(itemService.search("рубанок", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).size(), equalTo(0));
+
+        ItemToReturnDto planeReturnDto = itemService.add(ItemToGetDto.builder()
+                .name("Рубанок").description("Столярный").available(true).build(), user2.getId());
+
+        assertThat(itemService.search("рубанок", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).stream()
+                .map(ItemToReturnDto::getId)
+                .collect(Collectors.toList()), equalTo(List.of(planeReturnDto.getId())));
+
+        itemService.update(ItemToGetDto.builder().available(false).build(), planeReturnDto.getId(), user2.getId());
+
+        assertThat(itemService.search("рубанок", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10).size(), equalTo(0));
+    }
+
+    @Test
+    void getById_shouldNotServeStaleCards() {
+        assertThat(itemService.getById(item1ReturnDto.getId(), user2.getId()).getName(), equalTo("item1"));
+        assertNull(itemService.getById(item1ReturnDto.getId(), user1.getId()).getNextBooking());
+
+        itemService.update(ItemToGetDto.builder().name("Ножовка").build(), item1ReturnDto.getId(), user1.getId());
+        BookingToReturnDto nextBooking = bookingService.add(BookingToGetDto.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), user2.getId(), item1ReturnDto.getId());
+
+        assertThat(itemService.getById(item1ReturnDto.getId(), user2.getId()).getName(), equalTo("Ножовка"));
+        assertThat(itemService.getById(item1ReturnDto.getId(), user1.getId()).getNextBooking().getId(),
+                equalTo(nextBooking.getId()));
+    }
+
+    @Test
+    void getAvailability_shouldSplitWindowAroundBookings() {
+        LocalDateTime from = booking.getStart().minusDays(1);
+        LocalDateTime to = booking.getEnd().plusDays(1);
+
+        assertThat(itemService.getAvailability(item1ReturnDto.getId(), user2.getId(), from, to), equalTo(List.of(
+                new ItemAvailabilityDto(from, booking.getStart(), true),
+                new ItemAvailabilityDto(booking.getStart(), booking.getEnd(), false),
+                new ItemAvailabilityDto(booking.getEnd(), to, true))));
+        assertThat(itemService.getAvailability(item2ReturnDto.getId(), user2.getId(), from, to),
+                equalTo(List.of(new ItemAvailabilityDto(from, to, true))));
+    }
 }
@@ -9,24 +9,39 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.Fields;
+import ru.practicum.shareit.booking.dto.BookingIntervalProjection;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.repository.JpaBookingRepository;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.repository.JpaCommentRepository;
+import ru.practicum.shareit.exception.InvalidIntervalException;
 import ru.practicum.shareit.exception.NoPermissionException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemCountProjection;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemTextDto;
 import ru.practicum.shareit.item.dto.ItemToGetDto;
 import ru.practicum.shareit.item.dto.ItemToReturnDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.SearchMode;
+import ru.practicum.shareit.item.model.SearchOrder;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeedCache;
+import ru.practicum.shareit.request.service.ItemRequestIndex;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -48,6 +63,14 @@ public class ItemServiceTest {
     @MockBean JpaCommentRepository commentRepository;
     @MockBean BookingMapper bookingMapper;
     @MockBean CommentMapper commentMapper;
+    @MockBean ItemTrigramIndex trigramIndex;
+    @MockBean ItemNameIndex nameIndex;
+    @MockBean ItemSearchCache searchCache;
+    @MockBean ItemCardCache cardCache;
+    @MockBean ItemRequestFeedCache feedCache;
+    @MockBean ItemRequestIndex requestIndex;
+    @MockBean JpaItemRequestRepository requestRepository;
+    @MockBean EntityLookupService entityLookup;
 
     User user1;
     UserToReturnDto user1ReturnDto;
@@ -68,6 +91,9 @@ public class ItemServiceTest {
 
     @BeforeEach
     void setUp() {
+        Mockito.when(searchCache.get(any()))
+                .thenReturn(null);
+
         user1 = User.builder().id(1L).name("name1").email("email1@mail.ru").build();
         user1ReturnDto = UserToReturnDto.builder().id(1L).name("name1").email("email1@mail.ru").build();
 
@@ -91,6 +117,7 @@ public class ItemServiceTest {
                 .name("name1")
                 .description("descr1")
                 .comments(new ArrayList<>())
+                .commentCount(0L)
                 .build();
 
         item2GetDto = ItemToGetDto.builder()
@@ -109,6 +136,7 @@ public class ItemServiceTest {
                 .name("name2")
                 .description("descr2")
                 .comments(new ArrayList<>())
+                .commentCount(0L)
                 .build();
 
         item3GetDto = ItemToGetDto.builder()
@@ -127,13 +155,30 @@ public class ItemServiceTest {
                 .name("name3")
                 .description("descr3")
                 .comments(new ArrayList<>())
+                .commentCount(0L)
                 .build();
 
     }
 
+    @Test
+    void getById_shouldReturnCachedCard() {
+        Mockito.when(entityLookup.getUser(user2.getId()))
+                .thenReturn(user2);
+        Mockito.when(cardCache.get(item1.getId(), user2.getId()))
+                .thenReturn(item1ReturnDto);
+
+        assertThat(itemService.getById(item1.getId(), user2.getId()), equalTo(item1ReturnDto));
+
+        Mockito.verify(cardCache, Mockito.never())
+                .put(any(), any(), any(), anyLong());
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
     @Test
     void getByOwnerId() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         List<Item> itemsList = List.of(item1, item2);
         Mockito.when(itemRepository.findAllByOwnerIdOrderById(user1.getId(), PageRequest.of(0, 10)))
@@ -143,25 +188,52 @@ public class ItemServiceTest {
         assertThat(actualList.size(), equalTo(2));
         assertTrue(actualList.containsAll(List.of(item1ReturnDto, item2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verify(itemRepository, Mockito.times(1))
                 .findAllByOwnerIdOrderById(user1.getId(), PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(itemRepository);
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextBookings(Mockito.eq(List.of(item1.getId(), item2.getId())), any());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(List.of(item1.getId(), item2.getId()), 10);
+        Mockito.verifyNoMoreInteractions(commentRepository);
+    }
+
+    @Test
+    void getByOwnerId_shouldSkipBookingsAndCommentsWhenNotSelected() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(itemRepository.findAllByOwnerIdOrderById(user1.getId(), PageRequest.of(0, 10)))
+                .thenReturn(List.of(item1, item2));
+        List<ItemToReturnDto> actualList = itemService.getByOwnerId(user1.getId(), 0, 10,
+                Fields.parse("id,name"));
+
+        assertThat(actualList.size(), equalTo(2));
+        assertThat(actualList.get(0).getName(), equalTo(item1.getName()));
+
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllByOwnerIdOrderById(user1.getId(), PageRequest.of(0, 10));
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
     }
 
     @Test
     void getByOwnerId_shouldThrowUserNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenThrow(UserNotFoundException.class);
 
         assertThrows(UserNotFoundException.class, () ->
                 itemService.getByOwnerId(user1.getId(), 0, 10));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verifyNoInteractions(itemMapper);
         Mockito.verifyNoInteractions(itemRepository);
@@ -169,7 +241,7 @@ public class ItemServiceTest {
 
     @Test
     void add() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
         Mockito.when(itemRepository.save(item1))
                 .thenReturn(item1);
@@ -178,8 +250,8 @@ public class ItemServiceTest {
 
         assertThat(actualItem, equalTo(item1ReturnDto));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verify(itemRepository, Mockito.times(1))
@@ -187,13 +259,31 @@ public class ItemServiceTest {
         Mockito.verifyNoMoreInteractions(itemRepository);
     }
 
+    @Test
+    void add_shouldRecordMatchesForOpenRequests() {
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(itemRepository.save(item1))
+                .thenReturn(item1);
+        Mockito.when(requestIndex.findMatches(user1.getId(), item1.getName(), item1.getDescription()))
+                .thenReturn(List.of(new ItemRequestIndex.Match(3L, 1.0), new ItemRequestIndex.Match(4L, 0.5)));
+
+        itemService.add(item1GetDto, user1.getId());
+
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .addMatch(3L, item1.getId(), 1.0);
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .addMatch(4L, item1.getId(), 0.5);
+        Mockito.verifyNoMoreInteractions(requestRepository);
+    }
+
     @Test
     void update() {
-        Mockito.when(userRepository.getReferenceById(user1.getId()))
+        Mockito.when(entityLookup.getUser(user1.getId()))
                 .thenReturn(user1);
-        Mockito.when(itemRepository.getReferenceById(item1.getId()))
+        Mockito.when(entityLookup.getOwnedItem(item1.getId(), user1.getId()))
                 .thenReturn(item1);
-        Mockito.when(commentRepository.findAllByItemId(item1.getId()))
+        Mockito.when(commentRepository.findLatestByItemId(item1.getId(), PageRequest.of(0, 10)))
                 .thenReturn(new ArrayList<>());
         Mockito.when(bookingRepository.findAllByItemId(item1.getId()))
                 .thenReturn(new ArrayList<>());
@@ -215,12 +305,12 @@ public class ItemServiceTest {
 
         assertThat(updatedItem, equalTo(expectedItem));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
 
-        Mockito.verify(itemRepository, Mockito.times(1))
-                .getReferenceById(item1.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getOwnedItem(item1.getId(), user1.getId());
         Mockito.verify(itemRepository, Mockito.times(1))
                 .save(updateItem);
         Mockito.verifyNoMoreInteractions(itemRepository);
@@ -230,7 +320,7 @@ public class ItemServiceTest {
         Mockito.verifyNoMoreInteractions(bookingRepository);
 
         Mockito.verify(commentRepository, Mockito.times(1))
-                .findAllByItemId(item1.getId());
+                .findLatestByItemId(item1.getId(), PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(commentRepository);
 
         Mockito.verify(bookingMapper, Mockito.times(1))
@@ -240,10 +330,10 @@ public class ItemServiceTest {
 
     @Test
     void update_shouldThrowNoPermissionsException() {
-        Mockito.when(userRepository.getReferenceById(user2.getId()))
+        Mockito.when(entityLookup.getUser(user2.getId()))
                 .thenReturn(user2);
-        Mockito.when(itemRepository.getReferenceById(item1.getId()))
-                .thenReturn(item1);
+        Mockito.when(entityLookup.getOwnedItem(item1.getId(), user2.getId()))
+                .thenThrow(new NoPermissionException(user2.getId()));
 
         assertThrows(NoPermissionException.class, () ->
                 itemService.update(item1GetDto, item1.getId(), user2.getId()));
@@ -257,34 +347,72 @@ public class ItemServiceTest {
     @Test
     void search() {
         List<Item> itemsList = List.of(item1, item2, item3);
-        Mockito.when(itemRepository.search("name", PageRequest.of(0, 10)))
+        Mockito.when(itemRepository.searchFullText("name", PageRequest.of(0, 10)))
                 .thenReturn(itemsList);
-        Mockito.when(bookingRepository.findAllByItemId(anyLong()))
+        Mockito.when(bookingRepository.findLastAndNextBookings(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(commentRepository.findAllByItemId(anyLong()))
-                .thenReturn(new ArrayList<>());
-        Mockito.when(bookingMapper.toForItemDtoList(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
 
-        List<ItemToReturnDto> actualList = itemService.search("name", 0, 10);
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10);
         assertThat(actualList.size(), equalTo(3));
         assertTrue(actualList.containsAll(List.of(item1ReturnDto, item2ReturnDto, item3ReturnDto)));
 
         Mockito.verify(itemRepository, Mockito.times(1))
-                .search("name", PageRequest.of(0, 10));
+                .searchFullText("name", PageRequest.of(0, 10));
         Mockito.verifyNoMoreInteractions(itemRepository);
 
-        Mockito.verify(bookingRepository, Mockito.times(3))
-                .findAllByItemId(anyLong());
-        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextBookings(any(), any());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
 
-        Mockito.verify(commentRepository, Mockito.times(3))
-                .findAllByItemId(anyLong());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
 
-        Mockito.verify(bookingMapper, Mockito.times(3))
-                .toForItemDtoList(any());
-        Mockito.verifyNoMoreInteractions(bookingMapper);
+        Mockito.verifyNoInteractions(bookingMapper);
+    }
+
+    @Test
+    void searchDuringWindow_shouldExcludeBookedItemsInQuery() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        Mockito.when(trigramIndex.findCandidates("name"))
+                .thenReturn(new long[]{1L, 2L, 3L});
+        Mockito.when(itemRepository.searchAllAvailableById(List.of(1L, 2L, 3L), "name", start, end))
+                .thenReturn(List.of(item1, item3));
+        Mockito.when(itemRepository.searchFullTextAvailable("name", start, end, PageRequest.of(0, 10)))
+                .thenReturn(List.of(item2));
+
+        assertThat(itemService.search("name", SearchMode.SUBSTRING, SearchOrder.ID, start, end, 0, 10,
+                Fields.parse("id")), equalTo(List.of(item1ReturnDto, item3ReturnDto)));
+        assertThat(itemService.search("name", SearchMode.FULLTEXT, SearchOrder.ID, start, end, 0, 10,
+                Fields.parse("id")), equalTo(List.of(item2ReturnDto)));
+
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .searchAllAvailableById(List.of(1L, 2L, 3L), "name", start, end);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .searchFullTextAvailable("name", start, end, PageRequest.of(0, 10));
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(searchCache, Mockito.times(1)).get(
+                ItemSearchCache.key("name", SearchMode.SUBSTRING, SearchOrder.ID, start, end, 0, 10,
+                        Fields.parse("id")));
+    }
+
+    @Test
+    void search_shouldReturnCachedPage() {
+        String key = ItemSearchCache.key("name", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10);
+        Mockito.when(searchCache.get(key))
+                .thenReturn(List.of(item1ReturnDto));
+
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.FULLTEXT, SearchOrder.ID, 0, 10);
+        assertThat(actualList, equalTo(List.of(item1ReturnDto)));
+
+        Mockito.verify(searchCache, Mockito.never())
+                .put(any(), Mockito.anyLong(), any());
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -292,7 +420,7 @@ public class ItemServiceTest {
         Mockito.when(itemRepository.search("name", PageRequest.of(2, 2)))
                 .thenReturn(new ArrayList<>());
 
-        List<ItemToReturnDto> actualList = itemService.search("name", 4,  2);
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.SUBSTRING, SearchOrder.ID, 4, 2);
 
         assertNotNull(actualList);
         assertThat(actualList.size(), equalTo(0));
@@ -305,36 +433,221 @@ public class ItemServiceTest {
         Mockito.verifyNoInteractions(bookingMapper);
     }
 
+    @Test
+    void suggest() {
+        Mockito.when(nameIndex.findByPrefix("na", 5))
+                .thenReturn(List.of(new ItemSuggestionDto(1L, "name1")));
+
+        assertThat(itemService.suggest("na", 5), equalTo(List.of(new ItemSuggestionDto(1L, "name1"))));
+
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    void searchBySubstring_shouldFetchTrigramCandidatesById() {
+        Mockito.when(trigramIndex.findCandidates("name"))
+                .thenReturn(new long[]{1L, 2L, 3L});
+        Mockito.when(itemRepository.searchAllById(List.of(1L, 2L, 3L), "name"))
+                .thenReturn(List.of(item1, item2, item3));
+        Mockito.when(bookingRepository.findLastAndNextBookings(any(), any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
+                .thenReturn(new ArrayList<>());
+
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.SUBSTRING, SearchOrder.ID, 2, 2);
+
+        assertThat(actualList, equalTo(List.of(item3ReturnDto)));
+
+        Mockito.verify(trigramIndex, Mockito.times(1))
+                .findCandidates("name");
+        Mockito.verifyNoMoreInteractions(trigramIndex);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .searchAllById(List.of(1L, 2L, 3L), "name");
+        Mockito.verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void searchBySubstring_shouldReturnEmptyListWithoutCandidates() {
+        Mockito.when(trigramIndex.findCandidates("name"))
+                .thenReturn(new long[0]);
+
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.SUBSTRING, SearchOrder.ID, 0, 10);
+
+        assertThat(actualList.size(), equalTo(0));
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void searchByRelevance_shouldReturnTopItems() {
+        Mockito.when(itemRepository.searchFullTextAfter("name3", 0L, 500))
+                .thenReturn(List.of(text(item1), text(item2), text(item3)));
+        Mockito.when(itemRepository.findAllById(List.of(3L, 2L)))
+                .thenReturn(List.of(item2, item3));
+        Mockito.when(commentRepository.countAllByItemIdIn(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(itemCount(2L, 5L)));
+        Mockito.when(bookingRepository.countAllApprovedByItemIdInAndStartAfter(any(), any()))
+                .thenReturn(List.of(itemCount(1L, 1L)));
+        Mockito.when(bookingRepository.findLastAndNextBookings(any(), any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
+                .thenReturn(new ArrayList<>());
+
+        List<ItemToReturnDto> actualList = itemService.search("name3", SearchMode.FULLTEXT, SearchOrder.RELEVANCE,
+                0, 2);
+
+        assertThat(actualList, equalTo(List.of(item3ReturnDto, item2ReturnDto)));
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .searchFullTextAfter("name3", 0L, 500);
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllById(List.of(3L, 2L));
+        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verifyNoInteractions(trigramIndex);
+    }
+
+    @Test
+    void searchByRelevance_shouldStopAtCandidatesLimit() {
+        Mockito.when(trigramIndex.findCandidates("name"))
+                .thenReturn(null);
+        Mockito.when(itemRepository.searchAfter(any(), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long lastId = invocation.getArgument(1);
+                    List<ItemTextDto> batch = new ArrayList<>();
+                    for (long id = lastId + 1; id <= lastId + 500; id++) {
+                        batch.add(new ItemTextDto(id, "name", "description"));
+                    }
+                    return batch;
+                });
+        Mockito.when(commentRepository.countAllByItemIdIn(any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(bookingRepository.countAllApprovedByItemIdInAndStartAfter(any(), any()))
+                .thenReturn(new ArrayList<>());
+
+        itemService.search("name", SearchMode.SUBSTRING, SearchOrder.RELEVANCE, 0, 2);
+
+        Mockito.verify(itemRepository, Mockito.times(20))
+                .searchAfter(any(), anyLong(), any());
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findAllById(List.of(1L, 2L));
+        Mockito.verifyNoMoreInteractions(itemRepository);
+    }
+
     @Test
     void search_shouldReturnShortList() {
         List<Item> itemsList = List.of(item1, item2);
-        Mockito.when(itemRepository.search("name", PageRequest.of(0, 2)))
+        Mockito.when(itemRepository.searchFullText("name", PageRequest.of(0, 2)))
                 .thenReturn(itemsList);
-        Mockito.when(bookingRepository.findAllByItemId(anyLong()))
-                .thenReturn(new ArrayList<>());
-        Mockito.when(commentRepository.findAllByItemId(anyLong()))
+        Mockito.when(bookingRepository.findLastAndNextBookings(any(), any()))
                 .thenReturn(new ArrayList<>());
-        Mockito.when(bookingMapper.toForItemDtoList(any()))
+        Mockito.when(commentRepository.findLatestByItemIdIn(any(), any()))
                 .thenReturn(new ArrayList<>());
 
-        List<ItemToReturnDto> actualList = itemService.search("name", 1,  2);
+        List<ItemToReturnDto> actualList = itemService.search("name", SearchMode.FULLTEXT, SearchOrder.ID, 1, 2);
 
         assertThat(actualList.size(), equalTo(2));
         assertTrue(actualList.containsAll(List.of(item1ReturnDto, item2ReturnDto)));
 
         Mockito.verify(itemRepository, Mockito.times(1))
-                .search("name", PageRequest.of(0, 2));
+                .searchFullText("name", PageRequest.of(0, 2));
 
-        Mockito.verify(bookingRepository, Mockito.times(2))
-                .findAllByItemId(anyLong());
-        Mockito.verifyNoMoreInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextBookings(any(), any());
+        Mockito.verifyNoMoreInteractions(bookingRepository);
 
-        Mockito.verify(commentRepository, Mockito.times(2))
-                .findAllByItemId(anyLong());
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findLatestByItemIdIn(any(), any());
         Mockito.verifyNoMoreInteractions(commentRepository);
 
-        Mockito.verify(bookingMapper, Mockito.times(2))
-                .toForItemDtoList(any());
-        Mockito.verifyNoMoreInteractions(bookingMapper);
+        Mockito.verifyNoInteractions(bookingMapper);
+    }
+
+    @Test
+    void getAvailability_shouldMergeOverlappingBookingsIntoBusyIntervals() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(entityLookup.getItem(item1.getId()))
+                .thenReturn(item1);
+        Mockito.when(bookingRepository.streamActiveIntervals(item1.getId(), from, to))
+                .thenReturn(Stream.of(
+                        interval(from.minusDays(1), from.plusDays(1)),
+                        interval(from.plusDays(3), from.plusDays(5)),
+                        interval(from.plusDays(4), from.plusDays(6)),
+                        interval(from.plusDays(4), from.plusDays(5)),
+                        interval(from.plusDays(6), from.plusDays(7))));
+
+        List<ItemAvailabilityDto> actual = itemService.getAvailability(item1.getId(), user1.getId(), from, to);
+
+        assertThat(actual, equalTo(List.of(
+                new ItemAvailabilityDto(from, from.plusDays(1), false),
+                new ItemAvailabilityDto(from.plusDays(1), from.plusDays(3), true),
+                new ItemAvailabilityDto(from.plusDays(3), from.plusDays(7), false),
+                new ItemAvailabilityDto(from.plusDays(7), to, true))));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .streamActiveIntervals(item1.getId(), from, to);
+        Mockito.verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void getAvailability_shouldReturnSingleFreeIntervalWithoutBookings() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        Mockito.when(entityLookup.getUser(user1.getId()))
+                .thenReturn(user1);
+        Mockito.when(entityLookup.getItem(item1.getId()))
+                .thenReturn(item1);
+        Mockito.when(bookingRepository.streamActiveIntervals(item1.getId(), from, to))
+                .thenReturn(Stream.empty());
+
+        assertThat(itemService.getAvailability(item1.getId(), user1.getId(), from, to),
+                equalTo(List.of(new ItemAvailabilityDto(from, to, true))));
+    }
+
+    @Test
+    void getAvailability_shouldRejectInvalidWindows() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        assertThrows(InvalidIntervalException.class, () ->
+                itemService.getAvailability(item1.getId(), user1.getId(), from, from));
+        assertThrows(InvalidIntervalException.class, () ->
+                itemService.getAvailability(item1.getId(), user1.getId(), from, from.plusDays(367)));
+
+        Mockito.verifyNoInteractions(entityLookup);
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingIntervalProjection interval(LocalDateTime start, LocalDateTime end) {
+        return new BookingIntervalProjection() {
+            @Override
+            public LocalDateTime getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return end;
+            }
+        };
+    }
+
+    private ItemTextDto text(Item item) {
+        return new ItemTextDto(item.getId(), item.getName(), item.getDescription());
+    }
+
+    private ItemCountProjection itemCount(Long itemId, Long count) {
+        return new ItemCountProjection() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
     }
-}
\ No newline at end of file
+}
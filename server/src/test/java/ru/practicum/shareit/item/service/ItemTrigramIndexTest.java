@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ItemTrigramIndexTest {
+    private ItemTrigramIndex trigramIndex;
+
+    @BeforeEach
+    void setUp() {
+        trigramIndex = new ItemTrigramIndex();
+        trigramIndex.put(Item.builder().id(1L).name("Дрель").description("Аккумуляторная дрель").build());
+        trigramIndex.put(Item.builder().id(2L).name("Отвертка").description("Крестовая").build());
+    }
+
+    @Test
+    void findCandidates_shouldIntersectPostings() {
+        trigramIndex.put(Item.builder().id(300L).name("Дрель-шуруповерт").description("С кейсом").build());
+
+        assertThat(trigramIndex.findCandidates("дрель"), equalTo(new long[]{1L, 300L}));
+        assertThat(trigramIndex.findCandidates("ВЕРТ"), equalTo(new long[]{2L, 300L}));
+        assertThat(trigramIndex.findCandidates("молоток"), equalTo(new long[0]));
+        assertThat(trigramIndex.findCandidates("др"), nullValue());
+    }
+
+    @Test
+    void put_shouldReplacePreviousText() {
+        trigramIndex.put(Item.builder().id(1L).name("Шуруповерт").description("Аккумуляторный").build());
+
+        assertThat(trigramIndex.findCandidates("дрель"), equalTo(new long[0]));
+        assertThat(trigramIndex.findCandidates("верт"), equalTo(new long[]{1L, 2L}));
+        assertThat(trigramIndex.findCandidates("аккум"), equalTo(new long[]{1L}));
+    }
+    @Test
+    void postingList_shouldKeepSortedUniqueIds() {
+        ItemTrigramIndex.PostingList postings = new ItemTrigramIndex.PostingList();
+        for (long id : new long[]{5L, 1_000_000_000_000L, 130L, 5L, 1L}) {
+            postings.add(id);
+        }
+
+        assertThat(postings.toArray(), equalTo(new long[]{1L, 5L, 130L, 1_000_000_000_000L}));
+
+        postings.remove(130L);
+        postings.remove(7L);
+
+        assertThat(postings.toArray(), equalTo(new long[]{1L, 5L, 1_000_000_000_000L}));
+        assertThat(postings.size(), equalTo(3));
+    }
+}
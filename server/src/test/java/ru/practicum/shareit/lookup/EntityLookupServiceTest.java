@@ -0,0 +1,129 @@
+package ru.practicum.shareit.lookup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.NoPermissionException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.JpaUserRepository;
+import ru.practicum.shareit.user.service.UserIdFilter;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+
+public class EntityLookupServiceTest {
+    private final User user1 = User.builder().id(1L).name("user1").email("user1@mail.ru").build();
+    private final User user2 = User.builder().id(2L).name("user2").email("user2@mail.ru").build();
+    private final Item item1 = Item.builder().id(1L).name("item1").owner(user1).available(true).build();
+    private JpaUserRepository userRepository;
+    private JpaItemRepository itemRepository;
+    private UserIdFilter userIdFilter;
+    private EntityLookupService entityLookup;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(JpaUserRepository.class);
+        itemRepository = Mockito.mock(JpaItemRepository.class);
+        userIdFilter = Mockito.mock(UserIdFilter.class);
+        Mockito.when(userIdFilter.mightContain(any()))
+                .thenReturn(true);
+        entityLookup = new EntityLookupService(userRepository, itemRepository, userIdFilter);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getUser_shouldLoadQueuedUsersInSingleQuery() {
+        Mockito.when(userRepository.findAllById(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(user1, user2));
+
+        entityLookup.queueUsers(List.of(2L, 3L));
+
+        assertThat(entityLookup.getUser(1L), equalTo(user1));
+        assertThat(entityLookup.getUser(2L), equalTo(user2));
+        assertThrows(UserNotFoundException.class, () -> entityLookup.getUser(3L));
+        Mockito.verify(userRepository, Mockito.times(1))
+                .findAllById(any());
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void getUser_shouldMemoizeWithinRequest() {
+        Mockito.when(userRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(user1));
+
+        entityLookup.getUser(1L);
+        entityLookup.getUser(1L);
+        Mockito.verify(userRepository, Mockito.times(1))
+                .findAllById(Set.of(1L));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        entityLookup.getUser(1L);
+        Mockito.verify(userRepository, Mockito.times(2))
+                .findAllById(Set.of(1L));
+    }
+
+    @Test
+    void getUser_shouldNotCacheOutsideRequest() {
+        RequestContextHolder.resetRequestAttributes();
+        Mockito.when(userRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(user1));
+
+        entityLookup.getUser(1L);
+        entityLookup.getUser(1L);
+
+        Mockito.verify(userRepository, Mockito.times(2))
+                .findAllById(Set.of(1L));
+    }
+
+    @Test
+    void getUser_shouldRejectFilteredIdsWithoutQuery() {
+        Mockito.when(userIdFilter.mightContain(99L))
+                .thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> entityLookup.getUser(99L));
+
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUser_shouldMarkFoundUsersInFilter() {
+        Mockito.when(userRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(user1));
+        Mockito.when(userRepository.findAllById(Set.of(3L)))
+                .thenReturn(List.of());
+
+        entityLookup.getUser(1L);
+        assertThrows(UserNotFoundException.class, () -> entityLookup.getUser(3L));
+
+        Mockito.verify(userIdFilter, Mockito.times(1)).add(1L);
+        Mockito.verify(userIdFilter, Mockito.never()).add(3L);
+    }
+
+    @Test
+    void getOwnedItem_shouldCheckOwner() {
+        Mockito.when(itemRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(item1));
+
+        assertThat(entityLookup.getOwnedItem(1L, user1.getId()), equalTo(item1));
+        assertThrows(NoPermissionException.class, () -> entityLookup.getOwnedItem(1L, user2.getId()));
+        assertThrows(ItemNotFoundException.class, () -> entityLookup.getItem(99L));
+    }
+}
@@ -11,14 +11,18 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static ru.practicum.shareit.utils.ResourcePool.*;
 
 @WebMvcTest(ItemRequestController.class)
@@ -192,7 +196,8 @@ class ItemRequestControllerTest {
                 new TypeReference<>() {});
 
         Mockito
-                .when(requestService.getByOwner(1L))
+                .when(requestService.getByOwner(1L, KeysetCursor.FIRST,
+                        ItemRequestController.MAX_UNPAGED_SIZE))
                 .thenReturn(savedUserRequests);
         mockMvc
                 .perform(
@@ -203,14 +208,16 @@ class ItemRequestControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(
                         MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserRequests)));
-        Mockito.verify(requestService, Mockito.times(1)).getByOwner(1L);
+        Mockito.verify(requestService, Mockito.times(1))
+                .getByOwner(1L, KeysetCursor.FIRST, ItemRequestController.MAX_UNPAGED_SIZE);
         Mockito.verifyNoMoreInteractions(requestService);
     }
 
     @Test
     void getNonExistentUserRequests() throws Exception {
         Mockito
-                .when(requestService.getByOwner(99L))
+                .when(requestService.getByOwner(99L, KeysetCursor.FIRST,
+                        ItemRequestController.MAX_UNPAGED_SIZE))
                 .thenThrow(UserNotFoundException.class);
         mockMvc
                 .perform(
@@ -219,7 +226,8 @@ class ItemRequestControllerTest {
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .characterEncoding(StandardCharsets.UTF_8))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
-        Mockito.verify(requestService, Mockito.times(1)).getByOwner(99L);
+        Mockito.verify(requestService, Mockito.times(1))
+                .getByOwner(99L, KeysetCursor.FIRST, ItemRequestController.MAX_UNPAGED_SIZE);
         Mockito.verifyNoMoreInteractions(requestService);
     }
 
@@ -258,6 +266,67 @@ class ItemRequestControllerTest {
         Mockito.verifyNoMoreInteractions(requestService);
     }
 
+    @Test
+    void getAllRequestsWithCursor() throws Exception {
+        ArrayList<ItemRequestToReturnDto> savedUserRequests = read(savedUserRequestReturnDtoList,
+                new TypeReference<>() {});
+        String expectedCursor = new KeysetCursor(savedUserRequests.get(savedUserRequests.size() - 1).getCreated(),
+                savedUserRequests.get(savedUserRequests.size() - 1).getId()).encode();
+
+        Mockito
+                .when(requestService.getAll(eq(1L), any(KeysetCursor.class), eq(savedUserRequests.size())))
+                .thenReturn(savedUserRequests);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/requests/all?cursor=&size=" + savedUserRequests.size())
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", expectedCursor))
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserRequests)));
+        Mockito.verify(requestService, Mockito.times(1))
+                .getAll(eq(1L), any(KeysetCursor.class), eq(savedUserRequests.size()));
+        Mockito.verifyNoMoreInteractions(requestService);
+    }
+
+    @Test
+    void getUserRequestsWithCursor() throws Exception {
+        ArrayList<ItemRequestToReturnDto> savedUserRequests = read(savedUserRequestReturnDtoList,
+                new TypeReference<>() {});
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2023, 12, 1, 10, 0), 7L);
+
+        Mockito
+                .when(requestService.getByOwner(eq(1L), any(KeysetCursor.class), eq(100)))
+                .thenReturn(savedUserRequests);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/requests?size=100&cursor=" + cursor.encode())
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"))
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(savedUserRequests)));
+        Mockito.verify(requestService, Mockito.times(1))
+                .getByOwner(eq(1L), any(KeysetCursor.class), eq(100));
+        Mockito.verifyNoMoreInteractions(requestService);
+    }
+
+    @Test
+    void getAllRequestsWithWrongCursor() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/requests/all?cursor=wrong")
+                                .header("X-Sharer-User-Id", 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(requestService);
+    }
+
     @Test
     void getAllRequestsWithFromParam() throws Exception {
         ArrayList<ItemRequestToReturnDto> savedUserRequests = read(savedUserRequestReturnDtoList,
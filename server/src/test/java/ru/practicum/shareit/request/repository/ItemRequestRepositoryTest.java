@@ -6,12 +6,18 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.request.dto.ItemMatchProjection;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +27,7 @@ class ItemRequestRepositoryTest {
 
     @Autowired private JpaUserRepository userRepository;
     @Autowired private JpaItemRequestRepository requestRepository;
+    @Autowired private JpaItemRepository itemRepository;
 
     @Test
     @Transactional
@@ -80,7 +87,7 @@ class ItemRequestRepositoryTest {
 
     @Test
     @Transactional
-    void findAllByRequesterId() {
+    void findAllByRequesterIdBefore() {
         User user1 = User.builder().name("name1").email("email1@mail.ru").build();
         userRepository.save(user1);
         User user2 = User.builder().name("name2").email("email2@mail.ru").build();
@@ -102,7 +109,8 @@ class ItemRequestRepositoryTest {
                 .created(LocalDateTime.now()).requester(user1).description("request3 description").build();
         requestRepository.save(request5);
 
-        List<ItemRequest> actualRequests = requestRepository.findAllByRequesterId(user2.getId());
+        List<ItemRequest> actualRequests = requestRepository.findAllByRequesterIdBefore(user2.getId(),
+                KeysetCursor.FIRST.getTimestamp(), KeysetCursor.FIRST.getId(), PageRequest.of(0, 10));
         assertNotNull(actualRequests);
         assertEquals(actualRequests.size(), 3);
         assertTrue(actualRequests.contains(request1));
@@ -112,7 +120,7 @@ class ItemRequestRepositoryTest {
 
     @Test
     @Transactional
-    void findAllByRequesterId_shouldReturnEmptyList() {
+    void findAllByRequesterIdBefore_shouldReturnEmptyList() {
         User user1 = User.builder().name("name1").email("email1@mail.ru").build();
         userRepository.save(user1);
         User user2 = User.builder().name("name2").email("email2@mail.ru").build();
@@ -134,10 +142,69 @@ class ItemRequestRepositoryTest {
                 .created(LocalDateTime.now()).requester(user1).description("request3 description").build();
         requestRepository.save(request5);
 
-        List<ItemRequest> actualRequests = requestRepository.findAllByRequesterId(user2.getId() + 1);
+        List<ItemRequest> actualRequests = requestRepository.findAllByRequesterIdBefore(user2.getId() + 1,
+                KeysetCursor.FIRST.getTimestamp(), KeysetCursor.FIRST.getId(), PageRequest.of(0, 10));
         assertNotNull(actualRequests);
         assertEquals(actualRequests.size(), 0);
     }
 
 
+
+    @Test
+    @Transactional
+    void findAllByRequesterIdIsNotBefore_shouldContinueAfterCursor() {
+        User user1 = User.builder().name("name1").email("email1@mail.ru").build();
+        userRepository.save(user1);
+        User user2 = User.builder().name("name2").email("email2@mail.ru").build();
+        userRepository.save(user2);
+        LocalDateTime created = LocalDateTime.of(2023, 12, 1, 10, 0);
+
+        ItemRequest request1 = requestRepository.save(ItemRequest.builder()
+                .created(created).requester(user2).description("request1 description").build());
+        ItemRequest request2 = requestRepository.save(ItemRequest.builder()
+                .created(created).requester(user2).description("request2 description").build());
+        ItemRequest request3 = requestRepository.save(ItemRequest.builder()
+                .created(created.minusHours(1)).requester(user1).description("request3 description").build());
+        ItemRequest request4 = requestRepository.save(ItemRequest.builder()
+                .created(created.minusHours(2)).requester(user2).description("request4 description").build());
+
+        assertEquals(List.of(request2, request1, request4),
+                requestRepository.findAllByRequesterIdIsNotBefore(user1.getId(), created.plusHours(1), 0L,
+                        PageRequest.of(0, 10)));
+        assertEquals(List.of(request1, request4),
+                requestRepository.findAllByRequesterIdIsNotBefore(user1.getId(), created, request2.getId(),
+                        PageRequest.of(0, 10)));
+        assertEquals(List.of(request3),
+                requestRepository.findAllByRequesterIdBefore(user1.getId(), created, request1.getId(),
+                        PageRequest.of(0, 10)));
+        assertEquals(List.of(request2, request1),
+                requestRepository.findLatest(PageRequest.of(0, 2)));
+    }
+
+    @Test
+    @Transactional
+    void findAllMatchesByRequestIdIn_shouldKeepBestMatchesPerRequest() {
+        User user = userRepository.save(User.builder().name("name1").email("email1@mail.ru").build());
+        ItemRequest request1 = requestRepository.save(ItemRequest.builder()
+                .created(LocalDateTime.now()).requester(user).description("request1 description").build());
+        ItemRequest request2 = requestRepository.save(ItemRequest.builder()
+                .created(LocalDateTime.now()).requester(user).description("request2 description").build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            items.add(itemRepository.save(Item.builder().name("item" + i).description("item description")
+                    .available(true).owner(user).updated(LocalDateTime.now()).build()));
+        }
+        requestRepository.addMatch(request1.getId(), items.get(0).getId(), 0.25);
+        requestRepository.addMatch(request1.getId(), items.get(1).getId(), 1.0);
+        requestRepository.addMatch(request1.getId(), items.get(2).getId(), 0.5);
+        requestRepository.addMatch(request2.getId(), items.get(0).getId(), 0.5);
+
+        List<ItemMatchProjection> matches =
+                requestRepository.findAllMatchesByRequestIdIn(List.of(request1.getId(), request2.getId()), 2);
+
+        assertEquals(List.of(request1.getId(), request1.getId(), request2.getId()),
+                matches.stream().map(ItemMatchProjection::getRequestId).collect(Collectors.toList()));
+        assertEquals(List.of(items.get(1).getId(), items.get(2).getId(), items.get(0).getId()),
+                matches.stream().map(ItemMatchProjection::getId).collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemRequestFeedCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemRequestFeedCache feedCache;
+    private List<ItemRequestFeedCache.Entry> entries;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        feedCache = new ItemRequestFeedCache(meterRegistry);
+        entries = List.of(new ItemRequestFeedCache.Entry(1L, ItemRequestToReturnDto.builder()
+                .id(1L).description("description").created(LocalDateTime.now()).items(new ArrayList<>()).build()));
+    }
+
+    @Test
+    void get_shouldReturnSegmentUntilInvalidated() {
+        assertNull(feedCache.get());
+
+        feedCache.put(feedCache.getGeneration(), entries);
+
+        ItemRequestFeedCache.Segment segment = feedCache.get();
+        assertThat(segment.entries, equalTo(entries));
+        assertTrue(segment.complete);
+        assertThat(meterRegistry.counter("request.feed.cache.requests", "result", "hit").count(), equalTo(1.0));
+        assertThat(meterRegistry.counter("request.feed.cache.requests", "result", "miss").count(), equalTo(1.0));
+
+        feedCache.invalidate();
+
+        assertNull(feedCache.get());
+    }
+
+    @Test
+    void put_shouldNotStoreSegmentLoadedBeforeInvalidation() {
+        long generation = feedCache.getGeneration();
+        feedCache.invalidate();
+
+        assertThat(feedCache.put(generation, entries).entries, equalTo(entries));
+        assertNull(feedCache.get());
+    }
+
+    @Test
+    void put_shouldMarkFullSegmentIncomplete() {
+        List<ItemRequestFeedCache.Entry> fullSegment = new ArrayList<>();
+        for (int i = 0; i < ItemRequestFeedCache.SEGMENT_SIZE; i++) {
+            fullSegment.add(entries.get(0));
+        }
+
+        assertFalse(feedCache.put(feedCache.getGeneration(), fullSegment).complete);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemRequestIndexTest {
+    private final User requester = User.builder().id(1L).build();
+    private ItemRequestIndex requestIndex;
+
+    @BeforeEach
+    void setUp() {
+        requestIndex = new ItemRequestIndex();
+        requestIndex.add(request(1L, "Нужна аккумуляторная дрель"));
+        requestIndex.add(request(2L, "Ищу щётку для обуви"));
+    }
+
+    @Test
+    void findMatches_shouldScoreSharedStems() {
+        List<ItemRequestIndex.Match> matches = requestIndex.findMatches(2L, "Дрели", "Аккумуляторный шуруповерт");
+
+        assertThat(matches.size(), equalTo(1));
+        assertThat(matches.get(0).requestId, equalTo(1L));
+        assertThat(matches.get(0).score, equalTo(1.0));
+    }
+
+    @Test
+    void findMatches_shouldOrderByScoreAndSkipOwnRequests() {
+        requestIndex.add(request(3L, "Дрель"));
+        requestIndex.add(ItemRequest.builder().id(4L).requester(User.builder().id(2L).build())
+                .description("Дрель").build());
+
+        assertThat(requestIds(requestIndex.findMatches(2L, "Дрель")), equalTo(List.of(3L, 1L)));
+        assertThat(requestIds(requestIndex.findMatches(5L, "Дрель")), equalTo(List.of(3L, 4L, 1L)));
+        assertThat(requestIds(requestIndex.findMatches(5L, "Молоток")), equalTo(List.of()));
+    }
+
+    @Test
+    void findMatches_shouldIgnoreStopwordsAndWeakOverlaps() {
+        requestIndex.add(request(3L, "Нужна складная лестница, стремянка или высокий табурет"));
+
+        assertThat(requestIds(requestIndex.findMatches(2L, "Нужна помощь")), equalTo(List.of()));
+        assertThat(requestIds(requestIndex.findMatches(2L, "Табурет")), equalTo(List.of()));
+        assertThat(requestIds(requestIndex.findMatches(2L, "Складная стремянка")), equalTo(List.of(3L)));
+    }
+
+    @Test
+    void add_shouldIgnoreAlreadyIndexedRequests() {
+        requestIndex.add(request(1L, "Молоток и гвозди"));
+
+        assertThat(requestIds(requestIndex.findMatches(2L, "Молоток")), equalTo(List.of()));
+        assertThat(requestIds(requestIndex.findMatches(2L, "Дрель")), equalTo(List.of(1L)));
+    }
+
+    private ItemRequest request(Long id, String description) {
+        return ItemRequest.builder().id(id).requester(requester).description(description).build();
+    }
+
+    private List<Long> requestIds(List<ItemRequestIndex.Match> matches) {
+        return matches.stream().map(match -> match.requestId).collect(Collectors.toList());
+    }
+}
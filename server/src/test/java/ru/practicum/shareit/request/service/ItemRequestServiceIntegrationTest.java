@@ -7,7 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemToGetDto;
+import ru.practicum.shareit.item.dto.ItemToReturnDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemMatchDto;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
 import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
@@ -35,7 +40,9 @@ public class ItemRequestServiceIntegrationTest {
     @Autowired private JpaUserRepository userRepository;
     @Autowired private UserMapper userMapper;
     @Autowired private JpaItemRequestRepository requestRepository;
+    @Autowired private ItemService itemService;
 
+    private User user1;
     private User user2;
 
     private ItemRequestToReturnDto request1ReturnDto;
@@ -46,7 +53,7 @@ public class ItemRequestServiceIntegrationTest {
     void setup() {
         UserToReturnDto user1ReturnDto = userService.add(
                 UserToGetDto.builder().name("user1").email("user1@mail.ru").build());
-        User user1 = userMapper.toEntity(user1ReturnDto);
+        user1 = userMapper.toEntity(user1ReturnDto);
 
         UserToReturnDto user2ReturnDto = userService.add(
                 UserToGetDto.builder().name("user2").email("user2@mail.ru").build());
@@ -100,4 +107,22 @@ public class ItemRequestServiceIntegrationTest {
         assertThrows(UserNotFoundException.class, () -> requestService.getAll(user2.getId() + 1, 0, 10));
     }
 
+    @Test
+    void getByOwner_shouldReturnMatchesForNewItems() {
+        ItemToReturnDto item = itemService.add(ItemToGetDto.builder()
+                .name("Request helper").description("Fits any descr").available(true).build(), user2.getId());
+        itemService.add(ItemToGetDto.builder()
+                .name("Unrelated").description("Nothing in common").available(true).build(), user2.getId());
+        itemService.add(ItemToGetDto.builder()
+                .name("Own request").description("Owner's descr").available(true).build(), user1.getId());
+
+        List<ItemRequestToReturnDto> actualRequestsList = requestService.getByOwner(user1.getId(),
+                KeysetCursor.FIRST, 10);
+
+        assertThat(actualRequestsList.size(), equalTo(3));
+        for (ItemRequestToReturnDto request : actualRequestsList) {
+            assertThat(request.getMatches(), equalTo(List.of(new ItemMatchDto(item.getId(), item.getName(),
+                    item.getDescription(), true, 1.0))));
+        }
+    }
 }
@@ -7,11 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.repository.JpaItemRepository;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.request.dto.ItemMatchDto;
+import ru.practicum.shareit.request.dto.ItemMatchProjection;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestToGetDto;
 import ru.practicum.shareit.request.dto.ItemRequestToReturnDto;
@@ -20,10 +25,11 @@ import ru.practicum.shareit.request.repository.JpaItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -46,6 +52,12 @@ public class ItemRequestServiceTest {
     private JpaUserRepository userRepository;
     @MockBean
     private ItemMapper itemMapper;
+    @MockBean
+    private ItemRequestFeedCache feedCache;
+    @MockBean
+    private ItemRequestIndex requestIndex;
+    @MockBean
+    private EntityLookupService entityLookup;
 
     private User user1Entity;
 
@@ -80,10 +92,10 @@ public class ItemRequestServiceTest {
 
     @Test
     void getById() {
-        Mockito.when(userRepository.getReferenceById(1L))
+        Mockito.when(entityLookup.getUser(1L))
                 .thenReturn(user1Entity);
-        Mockito.when(requestRepository.getReferenceById(1L))
-                .thenReturn(request1);
+        Mockito.when(requestRepository.findById(1L))
+                .thenReturn(Optional.of(request1));
         Mockito.when(itemRepository.findAllByRequestId(1L))
                 .thenReturn(new ArrayList<>());
 
@@ -92,11 +104,11 @@ public class ItemRequestServiceTest {
         ItemRequestToReturnDto expectedRequest = request1ToReturnDto;
         assertThat(actualRequest, equalTo(expectedRequest));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(1L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(1L);
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(requestRepository, Mockito.times(1))
-                .getReferenceById(1L);
+                .findById(1L);
         Mockito.verifyNoMoreInteractions(requestRepository);
         Mockito.verify(requestMapper, Mockito.times(1))
                 .toReturnDto(request1, new ArrayList<>());
@@ -105,19 +117,19 @@ public class ItemRequestServiceTest {
 
     @Test
     void getById_shouldReturnRequestNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(1L))
+        Mockito.when(entityLookup.getUser(1L))
                 .thenReturn(user1Entity);
-        Mockito.when(requestRepository.getReferenceById(99L))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(requestRepository.findById(99L))
+                .thenReturn(Optional.empty());
 
         assertThrows(ItemRequestNotFoundException.class, () -> requestService.getById(99L, 1L));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(1L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(1L);
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verify(requestRepository, Mockito.times(1))
-                .getReferenceById(99L);
+                .findById(99L);
         Mockito.verifyNoMoreInteractions(requestRepository);
 
         Mockito.verifyNoInteractions(itemRepository);
@@ -127,13 +139,13 @@ public class ItemRequestServiceTest {
 
     @Test
     void getById_shouldReturnUserNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(99L))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(entityLookup.getUser(99L))
+                .thenThrow(UserNotFoundException.class);
 
         assertThrows(UserNotFoundException.class, () -> requestService.getById(1L, 99L));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(99L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(99L);
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verifyNoInteractions(requestRepository);
@@ -143,7 +155,7 @@ public class ItemRequestServiceTest {
 
     @Test
     void add() {
-        Mockito.when(userRepository.getReferenceById(1L))
+        Mockito.when(entityLookup.getUser(1L))
                 .thenReturn(user1Entity);
 
         Mockito.when(requestMapper.toEntity(request1ToGetDto, user1Entity))
@@ -164,8 +176,8 @@ public class ItemRequestServiceTest {
         assertThat(actualRequest.getDescription(), equalTo(request1ToGetDto.getDescription()));
         assertThat(actualRequest.getCreated(), equalTo(LocalDateTime.of(2023, 12, 10, 10, 0, 0)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(1L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(1L);
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verify(requestMapper, Mockito.times(1))
@@ -173,11 +185,12 @@ public class ItemRequestServiceTest {
         Mockito.verify(requestMapper, Mockito.times(1))
                 .toReturnDto(savedRequest1, new ArrayList<>());
         Mockito.verifyNoMoreInteractions(requestMapper);
+        Mockito.verify(feedCache, Mockito.times(1)).invalidate();
     }
 
     @Test
     void getByOwner() {
-        Mockito.when(userRepository.getReferenceById(user1Entity.getId()))
+        Mockito.when(entityLookup.getUser(user1Entity.getId()))
                 .thenReturn(user1Entity);
 
         ItemRequest request2 = ItemRequest.builder()
@@ -185,35 +198,43 @@ public class ItemRequestServiceTest {
         ItemRequestToReturnDto request2ReturnDto = ItemRequestToReturnDto.builder()
                 .id(2L)
                 .items(new ArrayList<>())
+                .matches(new ArrayList<>())
                 .description(request2.getDescription())
                 .created(request2.getCreated())
                 .build();
+        request1ToReturnDto.setMatches(new ArrayList<>());
         List<ItemRequest> expectedList = List.of(
                 request1, request2);
-        Mockito.when(requestRepository.findAllByRequesterId(user1Entity.getId()))
+        Mockito.when(requestRepository.findAllByRequesterIdBefore(user1Entity.getId(),
+                        KeysetCursor.FIRST.getTimestamp(), KeysetCursor.FIRST.getId(), PageRequest.of(0, 10)))
                 .thenReturn(expectedList);
 
-        List<ItemRequestToReturnDto> actualList = requestService.getByOwner(user1Entity.getId());
+        List<ItemRequestToReturnDto> actualList = requestService.getByOwner(user1Entity.getId(),
+                KeysetCursor.FIRST, 10);
         assertThat(actualList.size(), equalTo(2));
         assertTrue(actualList.containsAll(List.of(request1ToReturnDto, request2ReturnDto)));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1Entity.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1Entity.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(requestRepository, Mockito.times(1))
-                .findAllByRequesterId(user1Entity.getId());
+                .findAllByRequesterIdBefore(user1Entity.getId(), KeysetCursor.FIRST.getTimestamp(),
+                        KeysetCursor.FIRST.getId(), PageRequest.of(0, 10));
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .findAllMatchesByRequestIdIn(Set.of(1L, 2L), ItemRequestServiceImpl.MAX_MATCHES);
         Mockito.verifyNoMoreInteractions(requestRepository);
     }
 
     @Test
     void getByOwner_shouldThrowUserNotFoundException() {
-        Mockito.when(userRepository.getReferenceById(user1Entity.getId() + 10))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(entityLookup.getUser(user1Entity.getId() + 10))
+                .thenThrow(UserNotFoundException.class);
 
-        assertThrows(UserNotFoundException.class, () -> requestService.getByOwner(user1Entity.getId() + 10));
+        assertThrows(UserNotFoundException.class,
+                () -> requestService.getByOwner(user1Entity.getId() + 10, KeysetCursor.FIRST, 10));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1Entity.getId() + 10);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1Entity.getId() + 10);
         Mockito.verifyNoMoreInteractions(userRepository);
 
         Mockito.verifyNoInteractions(requestRepository);
@@ -221,20 +242,159 @@ public class ItemRequestServiceTest {
 
     @Test
     void getByOwner_shouldReturnEmptyList() {
-        Mockito.when(userRepository.getReferenceById(1L))
+        Mockito.when(entityLookup.getUser(1L))
                 .thenReturn(user1Entity);
-        Mockito.when(requestRepository.findAllByRequesterId(user1Entity.getId()))
+        Mockito.when(requestRepository.findAllByRequesterIdBefore(user1Entity.getId(),
+                        KeysetCursor.FIRST.getTimestamp(), KeysetCursor.FIRST.getId(), PageRequest.of(0, 10)))
                 .thenReturn(new ArrayList<>());
 
-        List<ItemRequestToReturnDto> actualList = requestService.getByOwner(1L);
+        List<ItemRequestToReturnDto> actualList = requestService.getByOwner(1L, KeysetCursor.FIRST, 10);
         assertNotNull(actualList);
         assertThat(actualList.size(), equalTo(0));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(user1Entity.getId());
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(user1Entity.getId());
         Mockito.verifyNoMoreInteractions(userRepository);
         Mockito.verify(requestRepository, Mockito.times(1))
-                .findAllByRequesterId(user1Entity.getId());
+                .findAllByRequesterIdBefore(user1Entity.getId(), KeysetCursor.FIRST.getTimestamp(),
+                        KeysetCursor.FIRST.getId(), PageRequest.of(0, 10));
+        Mockito.verifyNoMoreInteractions(requestRepository);
+    }
+
+    @Test
+    void getAll_shouldFilterCachedFeedSegment() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        ItemRequestToReturnDto request2ReturnDto = returnDto(2L, request1.getCreated().plusHours(2));
+        ItemRequestToReturnDto request3ReturnDto = returnDto(3L, request1.getCreated().plusHours(1));
+        Mockito.when(feedCache.get())
+                .thenReturn(new ItemRequestFeedCache.Segment(List.of(
+                        new ItemRequestFeedCache.Entry(1L, returnDto(4L, request1.getCreated().plusHours(3))),
+                        new ItemRequestFeedCache.Entry(2L, request2ReturnDto),
+                        new ItemRequestFeedCache.Entry(2L, request3ReturnDto),
+                        new ItemRequestFeedCache.Entry(1L, request1ToReturnDto)), false, 0, Long.MAX_VALUE));
+
+        assertThat(requestService.getAll(1L, KeysetCursor.FIRST, 2),
+                equalTo(List.of(request2ReturnDto, request3ReturnDto)));
+        assertThat(requestService.getAll(1L, 0, 1), equalTo(List.of(request2ReturnDto)));
+
+        Mockito.verifyNoInteractions(requestRepository);
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getAll_shouldContinueBelowIncompleteFeedSegment() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        ItemRequestToReturnDto request2ReturnDto = returnDto(2L, request1.getCreated().plusHours(2));
+        Mockito.when(feedCache.get())
+                .thenReturn(new ItemRequestFeedCache.Segment(List.of(
+                        new ItemRequestFeedCache.Entry(2L, request2ReturnDto),
+                        new ItemRequestFeedCache.Entry(1L, request1ToReturnDto)), false, 0, Long.MAX_VALUE));
+        ItemRequest request3 = ItemRequest.builder()
+                .id(3L).description("description").requester(user1Entity).created(request1.getCreated()).build();
+        Mockito.when(requestRepository.findAllByRequesterIdIsNotBefore(1L, request1.getCreated(), 1L,
+                        PageRequest.of(0, 2)))
+                .thenReturn(List.of(request3));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(3L)))
+                .thenReturn(new ArrayList<>());
+
+        assertThat(requestService.getAll(1L, KeysetCursor.FIRST, 3),
+                equalTo(List.of(request2ReturnDto, returnDto(3L, request1.getCreated()))));
+
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .findAllByRequesterIdIsNotBefore(1L, request1.getCreated(), 1L, PageRequest.of(0, 2));
+        Mockito.verifyNoMoreInteractions(requestRepository);
+    }
+
+    @Test
+    void getAll_shouldLoadFeedSegmentOnMiss() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        Mockito.when(feedCache.put(Mockito.anyLong(), Mockito.any()))
+                .thenAnswer(invocation -> new ItemRequestFeedCache.Segment(invocation.getArgument(1), true, 0,
+                        Long.MAX_VALUE));
+        Mockito.when(requestRepository.findLatest(PageRequest.of(0, ItemRequestFeedCache.SEGMENT_SIZE)))
+                .thenReturn(List.of(request1));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(1L)))
+                .thenReturn(new ArrayList<>());
+
+        assertThat(requestService.getAll(2L, KeysetCursor.FIRST, 10), equalTo(List.of(request1ToReturnDto)));
+        assertThat(requestService.getAll(1L, KeysetCursor.FIRST, 10), equalTo(List.of()));
+
+        Mockito.verify(requestRepository, Mockito.times(2))
+                .findLatest(PageRequest.of(0, ItemRequestFeedCache.SEGMENT_SIZE));
+        Mockito.verifyNoMoreInteractions(requestRepository);
+    }
+
+    @Test
+    void getByOwnerAfterCursor() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        KeysetCursor cursor = new KeysetCursor(request1.getCreated().plusHours(1), 5L);
+        Mockito.when(requestRepository.findAllByRequesterIdBefore(1L, cursor.getTimestamp(), 5L,
+                        PageRequest.of(0, 10)))
+                .thenReturn(List.of(request1));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(1L)))
+                .thenReturn(new ArrayList<>());
+
+        request1ToReturnDto.setMatches(new ArrayList<>());
+
+        assertThat(requestService.getByOwner(1L, cursor, 10), equalTo(List.of(request1ToReturnDto)));
+
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .findAllByRequesterIdBefore(1L, cursor.getTimestamp(), 5L, PageRequest.of(0, 10));
+        Mockito.verify(requestRepository, Mockito.times(1))
+                .findAllMatchesByRequestIdIn(Set.of(1L), ItemRequestServiceImpl.MAX_MATCHES);
         Mockito.verifyNoMoreInteractions(requestRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getByOwner_shouldAttachMatchesInBulk() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        Mockito.when(requestRepository.findAllByRequesterIdBefore(1L, KeysetCursor.FIRST.getTimestamp(),
+                        KeysetCursor.FIRST.getId(), PageRequest.of(0, 10)))
+                .thenReturn(List.of(request1));
+        Mockito.when(itemRepository.findAllByRequestIdIn(Set.of(1L)))
+                .thenReturn(new ArrayList<>());
+        ItemMatchProjection match = Mockito.mock(ItemMatchProjection.class);
+        Mockito.when(match.getRequestId()).thenReturn(1L);
+        Mockito.when(match.getId()).thenReturn(7L);
+        Mockito.when(match.getName()).thenReturn("Дрель");
+        Mockito.when(match.getDescription()).thenReturn("Аккумуляторная дрель");
+        Mockito.when(match.getAvailable()).thenReturn(true);
+        Mockito.when(match.getScore()).thenReturn(0.5);
+        Mockito.when(requestRepository.findAllMatchesByRequestIdIn(Set.of(1L), ItemRequestServiceImpl.MAX_MATCHES))
+                .thenReturn(List.of(match));
+
+        List<ItemRequestToReturnDto> actualList = requestService.getByOwner(1L, KeysetCursor.FIRST, 10);
+
+        assertThat(actualList.get(0).getMatches(), equalTo(List.of(
+                new ItemMatchDto(7L, "Дрель", "Аккумуляторная дрель", true, 0.5))));
+    }
+
+    @Test
+    void add_shouldIndexSavedRequest() {
+        Mockito.when(entityLookup.getUser(1L))
+                .thenReturn(user1Entity);
+        Mockito.when(requestMapper.toEntity(request1ToGetDto, user1Entity))
+                .thenReturn(request1);
+        Mockito.when(requestRepository.save(request1))
+                .thenReturn(request1);
+
+        requestService.add(request1ToGetDto, 1L);
+
+        Mockito.verify(requestIndex, Mockito.times(1))
+                .add(request1);
+    }
+
+    private ItemRequestToReturnDto returnDto(Long id, LocalDateTime created) {
+        return ItemRequestToReturnDto.builder()
+                .id(id)
+                .description("description")
+                .created(created)
+                .items(new ArrayList<>())
+                .build();
+    }
+}
@@ -13,13 +13,18 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.exception.EmailAlreadyExistException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
 import static ru.practicum.shareit.utils.ResourcePool.*;
 
 @WebMvcTest(UserController.class)
@@ -262,4 +267,77 @@ class UserControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isMethodNotAllowed());
 
     }
+
+    @Test
+    void getUsersAfterCursor() throws Exception {
+        UserToReturnDto savedUserDto = read(savedUserReturnDto, UserToReturnDto.class);
+
+        Mockito
+                .when(userService.getAll(Mockito.argThat(cursor -> cursor.getId().equals(0L)), Mockito.eq(1)))
+                .thenReturn(List.of(savedUserDto));
+
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/users")
+                                .param("cursor", "")
+                                .param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor",
+                        UserCursor.of(savedUserDto).encode()))
+                .andExpect(
+                        MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(List.of(savedUserDto))));
+    }
+
+    @Test
+    void getUsersWithWrongCursor() throws Exception {
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/users")
+                                .param("cursor", "???"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamUsers() throws Exception {
+        UserToReturnDto savedUserDto = read(savedUserReturnDto, UserToReturnDto.class);
+
+        Mockito
+                .doAnswer(invocation -> {
+                    Consumer<UserToReturnDto> consumer = invocation.getArgument(0);
+                    consumer.accept(savedUserDto);
+                    consumer.accept(savedUserDto);
+                    return null;
+                })
+                .when(userService).streamAll(any(Consumer.class));
+
+        String line = objectMapper.writeValueAsString(savedUserDto);
+        mockMvc
+                .perform(
+                        MockMvcRequestBuilders.get("/users")
+                                .accept("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.content().string(line + "\n" + line + "\n"));
+
+        Mockito.verify(userService, Mockito.times(1)).streamAll(any(Consumer.class));
+        Mockito.verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    void getUserIdSnapshot() throws Exception {
+        UserIdSnapshotDto snapshot = new UserIdSnapshotDto(3L, new byte[]{10});
+
+        Mockito
+                .when(userService.getIdSnapshot())
+                .thenReturn(snapshot);
+
+        mockMvc
+                .perform(MockMvcRequestBuilders.get("/users/ids"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stableId").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bitmap").value("Cg=="));
+    }
 }
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.user.dto.UserIdSnapshotDto;
+import ru.practicum.shareit.user.repository.JpaUserRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class UserIdFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private JpaUserRepository userRepository;
+    private UserIdFilter userIdFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = Mockito.mock(JpaUserRepository.class);
+        Mockito.when(userRepository.findAllIdsAfter(anyLong(), any()))
+                .thenReturn(new ArrayList<>());
+        Mockito.when(userRepository.findAllIdsAfter(0L, PageRequest.of(0, 10_000)))
+                .thenReturn(List.of(1L, 2L, 5L));
+        userIdFilter = new UserIdFilter(userRepository, meterRegistry, 0);
+        userIdFilter.build();
+    }
+
+    @Test
+    void mightContain_shouldNotRejectIdsAboveStableWatermark() {
+        assertTrue(userIdFilter.mightContain(3L));
+        assertTrue(userIdFilter.mightContain(6L));
+        assertFalse(userIdFilter.mightContain(-1L));
+        assertThat(meterRegistry.counter("user.id.filter.rejections").count(), equalTo(1.0));
+    }
+
+    @Test
+    void mightContain_shouldRejectUnknownIdsBelowStableWatermark() {
+        userIdFilter.refresh();
+
+        assertTrue(userIdFilter.mightContain(1L));
+        assertTrue(userIdFilter.mightContain(5L));
+        assertFalse(userIdFilter.mightContain(3L));
+        assertTrue(userIdFilter.mightContain(6L));
+        assertTrue(userIdFilter.mightContain(Integer.MAX_VALUE + 1L));
+        assertThat(meterRegistry.counter("user.id.filter.rejections").count(), equalTo(1.0));
+    }
+
+    @Test
+    void refresh_shouldPickUpLateCommittedIds() {
+        Mockito.when(userRepository.findAllIdsAfter(0L, PageRequest.of(0, 10_000)))
+                .thenReturn(List.of(1L, 2L, 3L, 5L));
+        userIdFilter.refresh();
+
+        assertTrue(userIdFilter.mightContain(3L));
+        assertFalse(userIdFilter.mightContain(4L));
+        Mockito.verify(userRepository, Mockito.times(2))
+                .findAllIdsAfter(0L, PageRequest.of(0, 10_000));
+    }
+
+    @Test
+    void refresh_shouldWaitBeforeTrustingNewIds() {
+        userIdFilter = new UserIdFilter(userRepository, meterRegistry, 60_000);
+        userIdFilter.build();
+        userIdFilter.refresh();
+
+        assertTrue(userIdFilter.mightContain(3L));
+        assertThat(userIdFilter.snapshot().getStableId(), equalTo(0L));
+    }
+
+    @Test
+    void addAndRemove_shouldUpdateBitmap() {
+        userIdFilter.refresh();
+        userIdFilter.add(4L);
+        userIdFilter.remove(1L);
+
+        assertTrue(userIdFilter.mightContain(4L));
+        assertFalse(userIdFilter.mightContain(1L));
+    }
+
+    @Test
+    void snapshot_shouldExportStableIds() {
+        userIdFilter.refresh();
+        UserIdSnapshotDto snapshot = userIdFilter.snapshot();
+
+        assertThat(snapshot.getStableId(), equalTo(5L));
+        BitSet ids = BitSet.valueOf(snapshot.getBitmap());
+        assertTrue(ids.get(2));
+        assertFalse(ids.get(3));
+    }
+}
@@ -6,9 +6,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.dto.UserCursor;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -49,4 +53,18 @@ public class UserServiceIntegrationTest {
                 userService.update(updatedUserDto, updatedUserDto.getId()));
     }
 
+    @Test
+    void getAll_shouldPageByCursorAndStreamInIdOrder() {
+        UserToReturnDto user1 = userService.add(UserToGetDto.builder().name("user1").email("user1@mail.ru").build());
+        UserToReturnDto user2 = userService.add(UserToGetDto.builder().name("user2").email("user2@mail.ru").build());
+        UserToReturnDto user3 = userService.add(UserToGetDto.builder().name("user3").email("user3@mail.ru").build());
+
+        assertThat(userService.getAll(new UserCursor(user1.getId() - 1), 2), equalTo(List.of(user1, user2)));
+        assertThat(userService.getAll(UserCursor.of(user2), 2), equalTo(List.of(user3)));
+
+        List<UserToReturnDto> streamedUsers = new ArrayList<>();
+        userService.streamAll(streamedUsers::add);
+        assertThat(streamedUsers.subList(streamedUsers.size() - 3, streamedUsers.size()),
+                equalTo(List.of(user1, user2, user3)));
+    }
 }
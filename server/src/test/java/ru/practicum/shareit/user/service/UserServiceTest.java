@@ -8,18 +8,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
 import ru.practicum.shareit.exception.EmailAlreadyExistException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.lookup.EntityLookupService;
+import ru.practicum.shareit.user.dto.UserCursor;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.dto.UserToGetDto;
 import ru.practicum.shareit.user.dto.UserToReturnDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.JpaUserRepository;
 
-import javax.persistence.EntityNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -35,6 +38,8 @@ public class UserServiceTest {
     private UserMapper userMapper;
 
     @MockBean private JpaUserRepository userRepository;
+    @MockBean private EntityLookupService entityLookup;
+    @MockBean private UserIdFilter userIdFilter;
 
     private UserToGetDto user1ToGetDto;
     private User user1Entity;
@@ -61,23 +66,23 @@ public class UserServiceTest {
 
     @Test
     void getById() {
-        Mockito.when(userRepository.getReferenceById(1L))
+        Mockito.when(entityLookup.getUser(1L))
                 .thenReturn(user1Entity);
         UserToReturnDto actualUser = userService.getById(1L);
         assertThat(actualUser, equalTo(user1ToReturnDto));
 
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(1L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(1L);
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
     @Test
     void getById_shouldThrowException() {
-        Mockito.when(userRepository.getReferenceById(10L))
-                .thenThrow(EntityNotFoundException.class);
+        Mockito.when(entityLookup.getUser(10L))
+                .thenThrow(UserNotFoundException.class);
         assertThrows(UserNotFoundException.class, () -> userService.getById(10L));
-        Mockito.verify(userRepository, Mockito.times(1))
-                .getReferenceById(10L);
+        Mockito.verify(entityLookup, Mockito.times(1))
+                .getUser(10L);
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
@@ -109,6 +114,33 @@ public class UserServiceTest {
         Mockito.verifyNoMoreInteractions(userRepository);
     }
 
+    @Test
+    void getAllAfterCursor() {
+        Mockito.when(userRepository.findAllAfter(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(user2Entity, user3Entity));
+
+        List<UserToReturnDto> actualUsers = userService.getAll(new UserCursor(1L), 2);
+
+        assertThat(actualUsers, equalTo(List.of(user2ToReturnDto, user3ToReturnDto)));
+        Mockito.verify(userRepository, Mockito.times(1))
+                .findAllAfter(1L, PageRequest.of(0, 2));
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void streamAll_shouldPassEachUserToConsumer() {
+        Mockito.when(userRepository.streamAll())
+                .thenReturn(Stream.of(user1ToReturnDto, user2ToReturnDto));
+
+        List<UserToReturnDto> actualUsers = new ArrayList<>();
+        userService.streamAll(actualUsers::add);
+
+        assertThat(actualUsers, equalTo(List.of(user1ToReturnDto, user2ToReturnDto)));
+        Mockito.verify(userRepository, Mockito.times(1))
+                .streamAll();
+        Mockito.verifyNoMoreInteractions(userRepository);
+    }
+
     @Test
     void add() {
         Mockito.when(userMapper.toEntity(user1ToGetDto))
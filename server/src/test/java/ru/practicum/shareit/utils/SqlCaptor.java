@@ -0,0 +1,28 @@
+package ru.practicum.shareit.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SqlCaptor implements StatementInspector {
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> capture(Runnable query) {
+        synchronized (statements) {
+            statements.clear();
+        }
+        query.run();
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+}